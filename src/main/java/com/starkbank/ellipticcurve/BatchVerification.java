@@ -0,0 +1,308 @@
+package com.starkbank.ellipticcurve;
+import com.starkbank.ellipticcurve.utils.BinaryAscii;
+import com.starkbank.ellipticcurve.utils.RandomInteger;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * Verification of many signed messages at once.
+ *
+ * The fork/join mode groups items by public key, precomputes the multiples of every key used often
+ * enough and verifies the items in parallel chunks.
+ *
+ * The randomized mode folds the equations R_i = u1_i*G + u2_i*Q_i of many signatures into a single
+ * multi-scalar multiplication, sum z_i*R_i - (sum z_i*u1_i)*G - sum (z_i*u2_i)*Q_i = 0, with random
+ * 128-bit z_i, so a forged signature passes with probability about 2^-128. R_i is recovered from r and
+ * the recovery id; items without one are verified on their own. When the combined equation fails, the
+ * batch is split in halves until the invalid items are isolated and checked one by one.
+ */
+final class BatchVerification {
+
+    /**
+     * Number of items signed by the same key from which precomputing its multiples pays off
+     */
+    static final int TABLE_THRESHOLD = 4;
+
+    private static final int CHUNK = 32;
+
+    /**
+     * Size under which a failing randomized batch is verified item by item instead of split again
+     */
+    private static final int LEAF = 4;
+
+    /**
+     * Random weights of a randomized batch are drawn below 2^128
+     */
+    private static final BigInteger WEIGHT_BOUND = BigInteger.ONE.shiftLeft(128);
+
+    private BatchVerification() {
+    }
+
+    /**
+     *
+     * @param items signed messages
+     * @param pool pool running the verification
+     * @return BitSet with bit i set if item i is valid
+     */
+    static BitSet verify(List<SignedMessage> items, ForkJoinPool pool) {
+        SignedMessage[] array = items.toArray(new SignedMessage[items.size()]);
+        Map<PublicKey, Integer> uses = new HashMap<>();
+        for (SignedMessage item : array) {
+            Integer count = uses.get(item.publicKey);
+            uses.put(item.publicKey, count == null ? 1 : count + 1);
+        }
+        List<PublicKey> keys = new ArrayList<>();
+        for (Map.Entry<PublicKey, Integer> entry : uses.entrySet()) {
+            if (entry.getValue() >= TABLE_THRESHOLD) {
+                keys.add(entry.getKey());
+            }
+        }
+        Map<PublicKey, PointTable> tables = new ConcurrentHashMap<>();
+        if (!keys.isEmpty()) {
+            pool.invoke(new TableTask(keys, 0, keys.size(), tables));
+        }
+        boolean[] valid = new boolean[array.length];
+        if (array.length > 0) {
+            pool.invoke(new VerifyTask(array, 0, array.length, tables, valid));
+        }
+        BitSet result = new BitSet(array.length);
+        for (int i = 0; i < valid.length; i++) {
+            if (valid[i]) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     *
+     * @param items signed messages, hashed with SHA-256
+     * @param stopAtInvalid stop as soon as an invalid item is found, leaving the other bits unset
+     * @return BitSet with bit i set if item i is valid
+     */
+    static BitSet verifyRandomized(List<SignedMessage> items, boolean stopAtInvalid) {
+        DigestPool digest = DigestPool.of(DigestPool.SHA256);
+        BitSet valid = new BitSet(items.size());
+        Map<Curve, List<Equation>> equations = new HashMap<>();
+        Map<Curve, JacobianArithmetic> arithmetics = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            SignedMessage item = items.get(i);
+            BigInteger numberMessage = BinaryAscii.numberFromString(digest.digest(item.message.getBytes()));
+            Curve curve = item.publicKey.curve;
+            JacobianArithmetic arithmetic = arithmetics.get(curve);
+            if (arithmetic == null) {
+                arithmetic = new JacobianArithmetic(curve);
+                arithmetics.put(curve, arithmetic);
+            }
+            Equation equation = Equation.of(i, numberMessage, item, arithmetic);
+            if (equation != null) {
+                List<Equation> list = equations.get(curve);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    equations.put(curve, list);
+                }
+                list.add(equation);
+            } else if (Ecdsa.verify(numberMessage, item.signature, item.publicKey, null)) {
+                valid.set(i);
+            } else if (stopAtInvalid) {
+                return valid;
+            }
+        }
+        for (Map.Entry<Curve, List<Equation>> entry : equations.entrySet()) {
+            Curve curve = entry.getKey();
+            Equation[] array = entry.getValue().toArray(new Equation[0]);
+            if (!check(curve, arithmetics.get(curve), array, 0, array.length, valid, stopAtInvalid) && stopAtInvalid) {
+                return valid;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Check equations [start, end), splitting them in halves while the combined equation fails
+     *
+     * @return true if every equation in the range is valid
+     */
+    private static boolean check(Curve curve, JacobianArithmetic arithmetic, Equation[] equations, int start, int end, BitSet valid, boolean stopAtInvalid) {
+        if (combined(curve, arithmetic, equations, start, end)) {
+            for (int i = start; i < end; i++) {
+                valid.set(equations[i].index);
+            }
+            return true;
+        }
+        if (end - start <= LEAF) {
+            boolean all = true;
+            for (int i = start; i < end; i++) {
+                Equation equation = equations[i];
+                if (Ecdsa.verify(equation.numberMessage, equation.item.signature, equation.item.publicKey, null)) {
+                    valid.set(equation.index);
+                } else if (stopAtInvalid) {
+                    return false;
+                } else {
+                    all = false;
+                }
+            }
+            return all;
+        }
+        int middle = (start + end) >>> 1;
+        boolean first = check(curve, arithmetic, equations, start, middle, valid, stopAtInvalid);
+        if (!first && stopAtInvalid) {
+            return false;
+        }
+        return check(curve, arithmetic, equations, middle, end, valid, stopAtInvalid) && first;
+    }
+
+    /**
+     *
+     * @return true if sum z_i*R_i - (sum z_i*u1_i)*G - sum (z_i*u2_i)*Q_i is the point at infinity
+     */
+    private static boolean combined(Curve curve, JacobianArithmetic arithmetic, Equation[] equations, int start, int end) {
+        Map<PublicKey, Integer> keys = new HashMap<>();
+        List<JacobianPoint> points = new ArrayList<>();
+        List<BigInteger> scalars = new ArrayList<>();
+        points.add(arithmetic.fromAffine(curve.G));
+        scalars.add(BigInteger.ZERO);
+        for (int i = start; i < end; i++) {
+            Equation equation = equations[i];
+            points.add(equation.R);
+            scalars.add(equation.z);
+            scalars.set(0, scalars.get(0).add(equation.z.multiply(equation.u1)));
+            Integer position = keys.get(equation.item.publicKey);
+            if (position == null) {
+                position = points.size();
+                keys.put(equation.item.publicKey, position);
+                points.add(arithmetic.fromAffine(equation.item.publicKey.point));
+                scalars.add(BigInteger.ZERO);
+            }
+            scalars.set(position, scalars.get(position).add(equation.z.multiply(equation.u2)));
+        }
+        scalars.set(0, curve.N.subtract(scalars.get(0).mod(curve.N)).mod(curve.N));
+        for (Integer position : keys.values()) {
+            scalars.set(position, curve.N.subtract(scalars.get(position).mod(curve.N)).mod(curve.N));
+        }
+        JacobianPoint sum = Math.multiplyMany(arithmetic, points.toArray(new JacobianPoint[0]), scalars.toArray(new BigInteger[0]));
+        return arithmetic.isInfinity(sum);
+    }
+
+    /**
+     * One signature of a randomized batch, with its nonce point recovered and its random weight
+     */
+    private static final class Equation {
+
+        private final int index;
+        private final SignedMessage item;
+        private final BigInteger numberMessage;
+        private final BigInteger u1;
+        private final BigInteger u2;
+        private final BigInteger z;
+        private final JacobianPoint R;
+
+        private Equation(int index, SignedMessage item, BigInteger numberMessage, BigInteger u1, BigInteger u2, BigInteger z, JacobianPoint R) {
+            this.index = index;
+            this.item = item;
+            this.numberMessage = numberMessage;
+            this.u1 = u1;
+            this.u2 = u2;
+            this.z = z;
+            this.R = R;
+        }
+
+        /**
+         *
+         * @return Equation, or null if the item cannot take part in a randomized batch
+         */
+        private static Equation of(int index, BigInteger numberMessage, SignedMessage item, JacobianArithmetic arithmetic) {
+            Signature signature = item.signature;
+            Curve curve = item.publicKey.curve;
+            if (signature.recoveryId == null || signature.recoveryId < 0 || signature.recoveryId > 3) {
+                return null;
+            }
+            if (signature.r.signum() <= 0 || signature.r.compareTo(curve.N) >= 0) {
+                return null;
+            }
+            if (signature.s.signum() <= 0 || signature.s.compareTo(curve.N) >= 0) {
+                return null;
+            }
+            BigInteger x = signature.recoveryId >= 2 ? signature.r.add(curve.N) : signature.r;
+            JacobianPoint R = Math.decompress(arithmetic, curve, x, (signature.recoveryId & 1) == 1);
+            if (R == null) {
+                return null;
+            }
+            BigInteger w = Math.inv(signature.s, curve.N);
+            BigInteger u1 = numberMessage.multiply(w).mod(curve.N);
+            BigInteger u2 = signature.r.multiply(w).mod(curve.N);
+            BigInteger z = RandomInteger.between(BigInteger.ONE, WEIGHT_BOUND);
+            return new Equation(index, item, numberMessage, u1, u2, z, R);
+        }
+    }
+
+    private static final class TableTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<PublicKey> keys;
+        private final int start;
+        private final int end;
+        private final Map<PublicKey, PointTable> tables;
+
+        private TableTask(List<PublicKey> keys, int start, int end, Map<PublicKey, PointTable> tables) {
+            this.keys = keys;
+            this.start = start;
+            this.end = end;
+            this.tables = tables;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start == 1) {
+                PublicKey publicKey = keys.get(start);
+                tables.put(publicKey, new PointTable(publicKey.curve, publicKey.point, PublicKeyCache.WINDOW));
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new TableTask(keys, start, middle, tables), new TableTask(keys, middle, end, tables));
+        }
+    }
+
+    private static final class VerifyTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SignedMessage[] items;
+        private final int start;
+        private final int end;
+        private final Map<PublicKey, PointTable> tables;
+        private final boolean[] valid;
+
+        private VerifyTask(SignedMessage[] items, int start, int end, Map<PublicKey, PointTable> tables, boolean[] valid) {
+            this.items = items;
+            this.start = start;
+            this.end = end;
+            this.tables = tables;
+            this.valid = valid;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > CHUNK) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new VerifyTask(items, start, middle, tables, valid), new VerifyTask(items, middle, end, tables, valid));
+                return;
+            }
+            DigestPool digest = DigestPool.of(DigestPool.SHA256);
+            for (int i = start; i < end; i++) {
+                SignedMessage item = items[i];
+                BigInteger numberMessage = BinaryAscii.numberFromString(digest.digest(item.message.getBytes()));
+                valid[i] = Ecdsa.verify(numberMessage, item.signature, item.publicKey, tables.get(item.publicKey));
+            }
+        }
+    }
+}
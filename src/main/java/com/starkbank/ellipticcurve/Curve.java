@@ -17,6 +17,12 @@ public class Curve {
     public Point G;
     public String name;
     public long[] oid;
+    public BigInteger beta;
+    public BigInteger lambda;
+    final Field field;
+    private BigInteger[][] basis;
+    private volatile JacobianPoint[][] generatorTable;
+    private volatile PointTable generatorMultiples;
 
     /**
      *
@@ -30,6 +36,25 @@ public class Curve {
      * @param oid oid
      */
     public Curve(BigInteger A, BigInteger B, BigInteger P, BigInteger N, BigInteger Gx, BigInteger Gy, String name, long[] oid) {
+        this(A, B, P, N, Gx, Gy, name, oid, null, null);
+    }
+
+    /**
+     * Curve with an efficiently computable endomorphism (x, y) -&gt; (beta*x, y), which equals
+     * multiplication by lambda, so scalar multiplications can be split in two halves (GLV method)
+     *
+     * @param A A
+     * @param B B
+     * @param P P
+     * @param N N
+     * @param Gx Gx
+     * @param Gy Gy
+     * @param name name
+     * @param oid oid
+     * @param beta cube root of unity modulo P
+     * @param lambda cube root of unity modulo N matching beta
+     */
+    public Curve(BigInteger A, BigInteger B, BigInteger P, BigInteger N, BigInteger Gx, BigInteger Gy, String name, long[] oid, BigInteger beta, BigInteger lambda) {
         this.A = A;
         this.B = B;
         this.P = P;
@@ -37,6 +62,12 @@ public class Curve {
         this.G = new Point(Gx, Gy);
         this.name = name;
         this.oid = oid;
+        this.beta = beta;
+        this.lambda = lambda;
+        this.field = Field.of(P);
+        if (lambda != null) {
+            this.basis = reducedBasis(N, lambda);
+        }
     }
 
     /**
@@ -58,7 +89,16 @@ public class Curve {
         if (p.y.compareTo(this.P) >= 0) {
             return false;
         }
-        return p.y.pow(2).subtract(p.x.pow(3).add(A.multiply(p.x)).add(B)).mod(P).intValue() == 0;
+        Field field = this.field.copy();
+        long[] x = field.element(p.x);
+        long[] left = field.element(p.y);
+        long[] right = field.element();
+        field.sqr(left, left);
+        field.sqr(right, x);
+        field.add(right, right, field.element(A));
+        field.mul(right, right, x);
+        field.add(right, right, field.element(B));
+        return field.equal(left, right);
     }
 
     /**
@@ -69,6 +109,105 @@ public class Curve {
         return (1 + N.toString(16).length()) / 2;
     }
 
+    /**
+     * Fixed-base table of the generator, built on first use and shared by every thread.
+     * Row i holds the affine points j * 16^i * G for j = 1..15
+     *
+     * @return JacobianPoint[][]
+     */
+    JacobianPoint[][] generatorTable() {
+        JacobianPoint[][] table = generatorTable;
+        if (table == null) {
+            synchronized (this) {
+                table = generatorTable;
+                if (table == null) {
+                    table = Math.fixedBaseTable(new JacobianArithmetic(this), G, (N.bitLength() + Math.FIXED_BASE_WINDOW - 1) / Math.FIXED_BASE_WINDOW);
+                    generatorTable = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     *
+     * @return true if the curve carries GLV endomorphism constants
+     */
+    public boolean hasEndomorphism() {
+        return basis != null;
+    }
+
+    /**
+     * Split a scalar k into k1 and k2, both about half the size of N, such that k = k1 + k2*lambda (mod N)
+     *
+     * @param k Scalar in the range [0, N)
+     * @return BigInteger[]{k1, k2}, which may be negative
+     */
+    BigInteger[] splitScalar(BigInteger k) {
+        BigInteger c1 = roundedDivision(basis[1][1].multiply(k), N);
+        BigInteger c2 = roundedDivision(basis[0][1].negate().multiply(k), N);
+        BigInteger k1 = k.subtract(c1.multiply(basis[0][0])).subtract(c2.multiply(basis[1][0]));
+        BigInteger k2 = c1.multiply(basis[0][1]).add(c2.multiply(basis[1][1])).negate();
+        return new BigInteger[]{k1, k2};
+    }
+
+    /**
+     * Short basis {(a1, b1), (a2, b2)} of the lattice of vectors (a, b) with a + b*lambda = 0 (mod N),
+     * found with the extended Euclidean algorithm on N and lambda
+     */
+    private static BigInteger[][] reducedBasis(BigInteger N, BigInteger lambda) {
+        BigInteger r0 = N;
+        BigInteger t0 = BigInteger.ZERO;
+        BigInteger r1 = lambda;
+        BigInteger t1 = BigInteger.ONE;
+        BigInteger q, r2, t2;
+        while (r1.multiply(r1).compareTo(N) >= 0) {
+            q = r0.divide(r1);
+            r2 = r0.subtract(q.multiply(r1));
+            t2 = t0.subtract(q.multiply(t1));
+            r0 = r1;
+            t0 = t1;
+            r1 = r2;
+            t1 = t2;
+        }
+        q = r0.divide(r1);
+        r2 = r0.subtract(q.multiply(r1));
+        t2 = t0.subtract(q.multiply(t1));
+        BigInteger[] first = new BigInteger[]{r1, t1.negate()};
+        BigInteger[] second = new BigInteger[]{r0, t0.negate()};
+        if (r2.pow(2).add(t2.pow(2)).compareTo(r0.pow(2).add(t0.pow(2))) < 0) {
+            second = new BigInteger[]{r2, t2.negate()};
+        }
+        return new BigInteger[][]{first, second};
+    }
+
+    private static BigInteger roundedDivision(BigInteger numerator, BigInteger denominator) {
+        BigInteger[] division = numerator.shiftLeft(1).add(denominator).divideAndRemainder(denominator.shiftLeft(1));
+        if (division[1].signum() < 0) {
+            return division[0].subtract(BigInteger.ONE);
+        }
+        return division[0];
+    }
+
+    /**
+     * Odd multiples G, 3G, ..., (2^(w-1) - 1)G and their endomorphism images, built on first use and shared by every thread
+     *
+     * @return PointTable
+     */
+    PointTable generatorMultiples() {
+        PointTable table = generatorMultiples;
+        if (table == null) {
+            synchronized (this) {
+                table = generatorMultiples;
+                if (table == null) {
+                    table = new PointTable(this, G, Math.GENERATOR_WNAF_WINDOW);
+                    generatorMultiples = table;
+                }
+            }
+        }
+        return table;
+    }
+
     /**
      *
      */
@@ -80,7 +219,9 @@ public class Curve {
         new BigInteger("79be667ef9dcbbac55a06295ce870b07029bfcdb2dce28d959f2815b16f81798", 16),
         new BigInteger("483ada7726a3c4655da4fbfc0e1108a8fd17b448a68554199c47d08ffb10d4b8", 16),
         "secp256k1",
-        new long[]{1, 3, 132, 0, 10}
+        new long[]{1, 3, 132, 0, 10},
+        new BigInteger("7ae96a2b657c07106e64479eac3434e99cf0497512f58995c1396c28719501ee", 16),
+        new BigInteger("5363ad4cc05c30e0a5261c028812645a122e22ea20816678df02967c1b23bd72", 16)
     );
 
     /**
@@ -0,0 +1,123 @@
+package com.starkbank.ellipticcurve;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+
+/**
+ * Deterministic nonces of RFC 6979, section 3.2: k is drawn from an HMAC DRBG seeded with the private
+ * key and the message hash, so the same key and hash always give the same signature and no entropy
+ * source is needed. The HMAC uses the hash of the signer, HMAC-SHA512 for SHA-512 and so on. Each
+ * thread keeps its own Mac instance per algorithm.
+ */
+final class DeterministicNonce {
+
+    private static final ThreadLocal<Map<String, Mac>> macs = new ThreadLocal<Map<String, Mac>>() {
+        @Override
+        protected Map<String, Mac> initialValue() {
+            return new HashMap<>();
+        }
+    };
+
+    private DeterministicNonce() {
+    }
+
+    /**
+     *
+     * @param algorithm name of the digest algorithm, such as SHA-256
+     * @return Mac of the thread for the HMAC built on that digest
+     */
+    static Mac mac(String algorithm) {
+        Map<String, Mac> cache = macs.get();
+        Mac mac = cache.get(algorithm);
+        if (mac == null) {
+            String name = "Hmac" + (algorithm.startsWith("SHA-") ? "SHA" + algorithm.substring(4) : algorithm);
+            try {
+                mac = Mac.getInstance(name);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalArgumentException("Could not find " + name + " for digest algorithm " + algorithm + " in provided java environment");
+            }
+            cache.put(algorithm, mac);
+        }
+        return mac;
+    }
+
+    /**
+     *
+     * @param privateKey privateKey
+     * @param algorithm name of the digest algorithm the hash was computed with, such as SHA-256
+     * @param hash hash of the message
+     * @return k in [1, N)
+     */
+    static BigInteger generate(PrivateKey privateKey, String algorithm, byte[] hash) {
+        BigInteger N = privateKey.curve.N;
+        int qlen = N.bitLength();
+        int rlen = (qlen + 7) / 8;
+        byte[] x = toOctets(privateKey.secret, rlen);
+        byte[] h = toOctets(toInteger(hash, qlen).mod(N), rlen);
+
+        Mac hmac = mac(algorithm);
+        byte[] v = new byte[hmac.getMacLength()];
+        byte[] k = new byte[hmac.getMacLength()];
+        Arrays.fill(v, (byte) 0x01);
+
+        k = hmac(hmac, k, v, new byte[]{0x00}, x, h);
+        v = hmac(hmac, k, v);
+        k = hmac(hmac, k, v, new byte[]{0x01}, x, h);
+        v = hmac(hmac, k, v);
+
+        byte[] t = new byte[rlen];
+        while (true) {
+            int length = 0;
+            while (length < rlen) {
+                v = hmac(hmac, k, v);
+                int count = java.lang.Math.min(v.length, rlen - length);
+                System.arraycopy(v, 0, t, length, count);
+                length += count;
+            }
+            BigInteger nonce = toInteger(t, qlen);
+            if (nonce.signum() > 0 && nonce.compareTo(N) < 0) {
+                return nonce;
+            }
+            k = hmac(hmac, k, v, new byte[]{0x00});
+            v = hmac(hmac, k, v);
+        }
+    }
+
+    private static byte[] hmac(Mac hmac, byte[] key, byte[]... data) {
+        try {
+            hmac.init(new SecretKeySpec(key, hmac.getAlgorithm()));
+        } catch (InvalidKeyException e) {
+            throw new IllegalStateException(e);
+        }
+        for (byte[] bytes : data) {
+            hmac.update(bytes);
+        }
+        return hmac.doFinal();
+    }
+
+    /**
+     * bits2int of RFC 6979: the leftmost qlen bits of the bytes as an integer
+     */
+    private static BigInteger toInteger(byte[] bytes, int qlen) {
+        BigInteger value = new BigInteger(1, bytes);
+        int blen = bytes.length * 8;
+        return blen > qlen ? value.shiftRight(blen - qlen) : value;
+    }
+
+    /**
+     * int2octets of RFC 6979: the integer as exactly rlen big-endian bytes
+     */
+    private static byte[] toOctets(BigInteger value, int rlen) {
+        byte[] bytes = value.toByteArray();
+        byte[] octets = new byte[rlen];
+        int count = java.lang.Math.min(bytes.length, rlen);
+        System.arraycopy(bytes, bytes.length - count, octets, rlen - count, count);
+        return octets;
+    }
+}
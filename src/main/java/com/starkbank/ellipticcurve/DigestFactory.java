@@ -0,0 +1,20 @@
+package com.starkbank.ellipticcurve;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+
+/**
+ * Creates the MessageDigest instances used to hash messages, for instance to plug in a faster provider.
+ * Install it with Ecdsa.setDigestFactory. Created digests are pooled and reused, so create is only called
+ * when every pooled digest of the algorithm is in use.
+ */
+public interface DigestFactory {
+
+    /**
+     *
+     * @param algorithm name of the digest algorithm, such as SHA-256
+     * @return new MessageDigest
+     * @throws NoSuchAlgorithmException if the algorithm is not available
+     */
+    MessageDigest create(String algorithm) throws NoSuchAlgorithmException;
+}
@@ -0,0 +1,161 @@
+package com.starkbank.ellipticcurve;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Reusable MessageDigest instances of one algorithm, shared by every thread. A digest is borrowed for a
+ * single hash and handed back, so each thread in flight holds at most one digest and the pool never grows
+ * past the number of threads hashing at the same time. Unlike a ThreadLocal, this keeps no state in idle
+ * threads, which matters with many short-lived or virtual threads.
+ */
+final class DigestPool {
+
+    static final String SHA256 = "SHA-256";
+
+    /**
+     * Maximum number of idle digests kept per algorithm
+     */
+    private static final int MAX_IDLE = 4 * Runtime.getRuntime().availableProcessors();
+
+    private static final DigestFactory defaultFactory = new DigestFactory() {
+        @Override
+        public MessageDigest create(String algorithm) throws NoSuchAlgorithmException {
+            return MessageDigest.getInstance(algorithm);
+        }
+    };
+
+    /**
+     * Factory in use together with the pools of its digests, swapped as a whole by setFactory
+     */
+    private static volatile Pools current = new Pools(defaultFactory);
+
+    private final String algorithm;
+    private final Pools owner;
+    private final ConcurrentLinkedQueue<MessageDigest> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    private DigestPool(String algorithm, Pools owner) {
+        this.algorithm = algorithm;
+        this.owner = owner;
+    }
+
+    /**
+     *
+     * @param algorithm name of the digest algorithm, such as SHA-256
+     * @return DigestPool of the algorithm, created by the current factory
+     */
+    static DigestPool of(String algorithm) {
+        Pools pools = current;
+        DigestPool pool = pools.pools.get(algorithm);
+        if (pool == null) {
+            pool = new DigestPool(algorithm, pools);
+            pool.release(pool.create());
+            DigestPool previous = pools.pools.putIfAbsent(algorithm, pool);
+            if (previous != null) {
+                pool = previous;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Use another factory for every digest created from now on, or restore the default with null.
+     * Digests of the previous factory still in use are dropped when they are handed back
+     *
+     * @param digestFactory digestFactory
+     */
+    static synchronized void setFactory(DigestFactory digestFactory) {
+        Pools previous = current;
+        current = new Pools(digestFactory == null ? defaultFactory : digestFactory);
+        for (DigestPool pool : previous.pools.values()) {
+            pool.idle.clear();
+        }
+    }
+
+    /**
+     *
+     * @return new MessageDigest of the algorithm, owned by the caller
+     */
+    MessageDigest create() {
+        try {
+            return owner.factory.create(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not find " + algorithm + " message digest in provided java environment");
+        }
+    }
+
+    /**
+     *
+     * @param bytes bytes
+     * @return digest of the bytes
+     */
+    byte[] digest(byte[] bytes) {
+        MessageDigest digest = acquire();
+        byte[] hash = digest.digest(bytes);
+        release(digest);
+        return hash;
+    }
+
+    /**
+     *
+     * @param bytes bytes
+     * @param offset index of the first byte to hash
+     * @param length number of bytes to hash
+     * @return digest of the bytes
+     */
+    byte[] digest(byte[] bytes, int offset, int length) {
+        MessageDigest digest = acquire();
+        digest.update(bytes, offset, length);
+        byte[] hash = digest.digest();
+        release(digest);
+        return hash;
+    }
+
+    /**
+     *
+     * @param buffer buffer, whose position is left untouched
+     * @return digest of the bytes between the position and the limit of the buffer
+     */
+    byte[] digest(ByteBuffer buffer) {
+        MessageDigest digest = acquire();
+        digest.update(buffer.duplicate());
+        byte[] hash = digest.digest();
+        release(digest);
+        return hash;
+    }
+
+    private MessageDigest acquire() {
+        MessageDigest digest = idle.poll();
+        if (digest == null) {
+            return create();
+        }
+        idleCount.decrementAndGet();
+        return digest;
+    }
+
+    private void release(MessageDigest digest) {
+        if (owner != current) {
+            return;
+        }
+        if (idleCount.incrementAndGet() > MAX_IDLE) {
+            idleCount.decrementAndGet();
+            return;
+        }
+        idle.offer(digest);
+    }
+
+    private static final class Pools {
+
+        private final DigestFactory factory;
+        private final ConcurrentHashMap<String, DigestPool> pools = new ConcurrentHashMap<>();
+
+        private Pools(DigestFactory factory) {
+            this.factory = factory;
+        }
+    }
+}
@@ -2,12 +2,36 @@ package com.starkbank.ellipticcurve;
 import com.starkbank.ellipticcurve.utils.BinaryAscii;
 import com.starkbank.ellipticcurve.utils.RandomInteger;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 
 public class Ecdsa {
 
+    private static volatile PublicKeyCache publicKeyCache;
+
+    /**
+     * Install a cache of precomputed tables for frequently verified public keys, or remove it with null
+     *
+     * @param cache cache
+     */
+    public static void setPublicKeyCache(PublicKeyCache cache) {
+        publicKeyCache = cache;
+    }
+
+    /**
+     * Create the digests of every default hash path (SHA-256 here, and the algorithm of each EcdsaSigner and
+     * EcdsaVerifier) with another factory, or restore MessageDigest.getInstance with null
+     *
+     * @param factory factory
+     */
+    public static void setDigestFactory(DigestFactory factory) {
+        DigestPool.setFactory(factory);
+    }
+
     /**
      *
      * @param message message
@@ -17,14 +41,41 @@ public class Ecdsa {
      */
 
     public static Signature sign(String message, PrivateKey privateKey, MessageDigest hashfunc) {
-        byte[] hashMessage = hashfunc.digest(message.getBytes());
-        BigInteger numberMessage = BinaryAscii.numberFromString(hashMessage);
-        Curve curve = privateKey.curve;
-        BigInteger randNum = RandomInteger.between(BigInteger.ONE, curve.N);
-        Point randomSignPoint = Math.multiply(curve.G, randNum, curve.N, curve.A, curve.P);
-        BigInteger r = randomSignPoint.x.mod(curve.N);
-        BigInteger s = ((numberMessage.add(r.multiply(privateKey.secret))).multiply(Math.inv(randNum, curve.N))).mod(curve.N);
-        return new Signature(r, s);
+        return signHash(hashfunc.digest(message.getBytes()), privateKey);
+    }
+
+    /**
+     *
+     * @param numberMessage hash of the message as an integer
+     * @param privateKey privateKey
+     * @return Signature
+     */
+    static Signature sign(BigInteger numberMessage, PrivateKey privateKey) {
+        return sign(numberMessage, privateKey, RandomInteger.between(BigInteger.ONE, privateKey.curve.N));
+    }
+
+    /**
+     *
+     * @param numberMessage hash of the message as an integer
+     * @param privateKey privateKey
+     * @param randNum nonce k in [1, N)
+     * @return Signature
+     */
+    static Signature sign(BigInteger numberMessage, PrivateKey privateKey, BigInteger randNum) {
+        return sign(numberMessage, privateKey, Nonce.of(privateKey.curve, randNum));
+    }
+
+    /**
+     *
+     * @param numberMessage hash of the message as an integer
+     * @param privateKey privateKey
+     * @param nonce precomputed k^-1 and r, used for this signature only
+     * @return Signature
+     */
+    static Signature sign(BigInteger numberMessage, PrivateKey privateKey, Nonce nonce) {
+        BigInteger r = nonce.r;
+        BigInteger s = ((numberMessage.add(r.multiply(privateKey.secret))).multiply(nonce.kInverse)).mod(privateKey.curve.N);
+        return new Signature(r, s, nonce.recoveryId);
     }
 
     /**
@@ -34,11 +85,66 @@ public class Ecdsa {
      * @return Signature
      */
     public static Signature sign(String message, PrivateKey privateKey) {
-        try {
-            return sign(message, privateKey, MessageDigest.getInstance("SHA-256"));
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("Could not find SHA-256 message digest in provided java environment");
-        }
+        return signHash(DigestPool.of(DigestPool.SHA256).digest(message.getBytes()), privateKey);
+    }
+
+    /**
+     *
+     * @param message message
+     * @param offset index of the first byte of the message
+     * @param length number of bytes of the message
+     * @param privateKey privateKey
+     * @param hashfunc hashfunc
+     * @return Signature
+     */
+    public static Signature sign(byte[] message, int offset, int length, PrivateKey privateKey, MessageDigest hashfunc) {
+        hashfunc.update(message, offset, length);
+        return signHash(hashfunc.digest(), privateKey);
+    }
+
+    /**
+     *
+     * @param message message
+     * @param privateKey privateKey
+     * @return Signature
+     */
+    public static Signature sign(byte[] message, PrivateKey privateKey) {
+        return signHash(DigestPool.of(DigestPool.SHA256).digest(message), privateKey);
+    }
+
+    /**
+     * Sign the bytes between the position and the limit of the buffer, hashed in place, so direct
+     * buffers are never copied to the heap. The position of the buffer is left untouched
+     *
+     * @param message message
+     * @param privateKey privateKey
+     * @param hashfunc hashfunc
+     * @return Signature
+     */
+    public static Signature sign(ByteBuffer message, PrivateKey privateKey, MessageDigest hashfunc) {
+        hashfunc.update(message.duplicate());
+        return signHash(hashfunc.digest(), privateKey);
+    }
+
+    /**
+     *
+     * @param message message
+     * @param privateKey privateKey
+     * @return Signature
+     */
+    public static Signature sign(ByteBuffer message, PrivateKey privateKey) {
+        return signHash(DigestPool.of(DigestPool.SHA256).digest(message), privateKey);
+    }
+
+    /**
+     * Sign a message hashed beforehand
+     *
+     * @param hash hash of the message
+     * @param privateKey privateKey
+     * @return Signature
+     */
+    public static Signature signHash(byte[] hash, PrivateKey privateKey) {
+        return sign(BinaryAscii.numberFromString(hash), privateKey);
     }
 
     /**
@@ -50,8 +156,18 @@ public class Ecdsa {
      * @return boolean
      */
     public static boolean verify(String message, Signature signature, PublicKey publicKey, MessageDigest hashfunc) {
-        byte[] hashMessage = hashfunc.digest(message.getBytes());
-        BigInteger numberMessage = BinaryAscii.numberFromString(hashMessage);
+        return verifyHash(hashfunc.digest(message.getBytes()), signature, publicKey);
+    }
+
+    /**
+     *
+     * @param numberMessage hash of the message as an integer
+     * @param signature signature
+     * @param publicKey publicKey
+     * @param table precomputed multiples of the public point, or null
+     * @return boolean
+     */
+    static boolean verify(BigInteger numberMessage, Signature signature, PublicKey publicKey, PointTable table) {
         Curve curve = publicKey.curve;
         BigInteger r = signature.r;
         BigInteger s = signature.s;
@@ -70,9 +186,14 @@ public class Ecdsa {
         }
         
         BigInteger w = Math.inv(s, curve.N);
-        Point u1 =Math.multiply(curve.G, numberMessage.multiply(w).mod(curve.N), curve.N, curve.A, curve.P);
-        Point u2 = Math.multiply(publicKey.point, r.multiply(w).mod(curve.N), curve.N, curve.A, curve.P);
-        Point v = Math.add(u1, u2, curve.A, curve.P);
+        BigInteger u1 = numberMessage.multiply(w).mod(curve.N);
+        BigInteger u2 = r.multiply(w).mod(curve.N);
+        Point v;
+        if (table == null) {
+            v = Math.multiplyGeneratorAndAdd(curve, u1, publicKey.point, u2);
+        } else {
+            v = Math.multiplyGeneratorAndAdd(curve, u1, table, u2);
+        }
         if (v.isAtInfinity()) {
             return false;
         }
@@ -87,10 +208,196 @@ public class Ecdsa {
      * @return boolean
      */
     public static boolean verify(String message, Signature signature, PublicKey publicKey) {
-        try {
-            return verify(message, signature, publicKey, MessageDigest.getInstance("SHA-256"));
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("Could not find SHA-256 message digest in provided java environment");
+        return verifyHash(DigestPool.of(DigestPool.SHA256).digest(message.getBytes()), signature, publicKey);
+    }
+
+    /**
+     *
+     * @param message message
+     * @param offset index of the first byte of the message
+     * @param length number of bytes of the message
+     * @param signature signature
+     * @param publicKey publicKey
+     * @param hashfunc hashfunc
+     * @return boolean
+     */
+    public static boolean verify(byte[] message, int offset, int length, Signature signature, PublicKey publicKey, MessageDigest hashfunc) {
+        hashfunc.update(message, offset, length);
+        return verifyHash(hashfunc.digest(), signature, publicKey);
+    }
+
+    /**
+     *
+     * @param message message
+     * @param signature signature
+     * @param publicKey publicKey
+     * @return boolean
+     */
+    public static boolean verify(byte[] message, Signature signature, PublicKey publicKey) {
+        return verifyHash(DigestPool.of(DigestPool.SHA256).digest(message), signature, publicKey);
+    }
+
+    /**
+     * Verify the signature of the bytes between the position and the limit of the buffer, hashed in place,
+     * so direct buffers are never copied to the heap. The position of the buffer is left untouched
+     *
+     * @param message message
+     * @param signature signature
+     * @param publicKey publicKey
+     * @param hashfunc hashfunc
+     * @return boolean
+     */
+    public static boolean verify(ByteBuffer message, Signature signature, PublicKey publicKey, MessageDigest hashfunc) {
+        hashfunc.update(message.duplicate());
+        return verifyHash(hashfunc.digest(), signature, publicKey);
+    }
+
+    /**
+     *
+     * @param message message
+     * @param signature signature
+     * @param publicKey publicKey
+     * @return boolean
+     */
+    public static boolean verify(ByteBuffer message, Signature signature, PublicKey publicKey) {
+        return verifyHash(DigestPool.of(DigestPool.SHA256).digest(message), signature, publicKey);
+    }
+
+    /**
+     * Verify the signature of a message hashed beforehand
+     *
+     * @param hash hash of the message
+     * @param signature signature
+     * @param publicKey publicKey
+     * @return boolean
+     */
+    public static boolean verifyHash(byte[] hash, Signature signature, PublicKey publicKey) {
+        PublicKeyCache cache = publicKeyCache;
+        PointTable table = cache == null ? null : cache.table(publicKey);
+        return verify(BinaryAscii.numberFromString(hash), signature, publicKey, table);
+    }
+
+    /**
+     * Public key that produced the signature of a message hashed with hashfunc, found from the
+     * nonce point R given by r and the recovery id: Q = r^-1 * (s*R - e*G)
+     *
+     * @param message message
+     * @param signature signature, with its recoveryId set
+     * @param curve curve
+     * @param hashfunc hashfunc
+     * @return PublicKey
+     */
+    public static PublicKey recoverPublicKey(String message, Signature signature, Curve curve, MessageDigest hashfunc) {
+        if (signature.recoveryId == null) {
+            throw new IllegalArgumentException("Signature has no recovery id");
         }
+        return recoverPublicKey(hashfunc.digest(message.getBytes()), signature, signature.recoveryId, curve);
+    }
+
+    /**
+     *
+     * @param message message
+     * @param signature signature, with its recoveryId set
+     * @param curve curve
+     * @return PublicKey
+     */
+    public static PublicKey recoverPublicKey(String message, Signature signature, Curve curve) {
+        if (signature.recoveryId == null) {
+            throw new IllegalArgumentException("Signature has no recovery id");
+        }
+        return recoverPublicKey(DigestPool.of(DigestPool.SHA256).digest(message.getBytes()), signature, signature.recoveryId, curve);
+    }
+
+    /**
+     *
+     * @param hash hash of the message
+     * @param signature signature
+     * @param recoveryId parity of the y coordinate of R, plus 2 if its x coordinate is r + N
+     * @param curve curve
+     * @return PublicKey
+     */
+    public static PublicKey recoverPublicKey(byte[] hash, Signature signature, int recoveryId, Curve curve) {
+        return recoverPublicKey(BinaryAscii.numberFromString(hash), signature, recoveryId, curve);
+    }
+
+    /**
+     *
+     * @param numberMessage hash of the message as an integer
+     * @param signature signature
+     * @param recoveryId recoveryId
+     * @param curve curve
+     * @return PublicKey
+     */
+    static PublicKey recoverPublicKey(BigInteger numberMessage, Signature signature, int recoveryId, Curve curve) {
+        BigInteger r = signature.r;
+        BigInteger s = signature.s;
+        if (recoveryId < 0 || recoveryId > 3) {
+            throw new IllegalArgumentException(String.format("Invalid recovery id %d", recoveryId));
+        }
+        if (r.signum() <= 0 || r.compareTo(curve.N) >= 0 || s.signum() <= 0 || s.compareTo(curve.N) >= 0) {
+            throw new IllegalArgumentException("Signature r and s must lie in [1, N)");
+        }
+        JacobianArithmetic arithmetic = new JacobianArithmetic(curve);
+        BigInteger x = recoveryId >= 2 ? r.add(curve.N) : r;
+        JacobianPoint R = Math.decompress(arithmetic, curve, x, (recoveryId & 1) == 1);
+        if (R == null) {
+            throw new IllegalArgumentException(String.format("No point of curve %s matches the signature and recovery id %d", curve.name, recoveryId));
+        }
+        BigInteger w = Math.inv(r, curve.N);
+        BigInteger u1 = numberMessage.negate().multiply(w).mod(curve.N);
+        BigInteger u2 = s.multiply(w).mod(curve.N);
+        Point q = Math.multiplyGeneratorAndAdd(curve, u1, arithmetic.toAffine(R), u2);
+        if (q.isAtInfinity()) {
+            throw new IllegalArgumentException("Recovered public key is at infinity");
+        }
+        return new PublicKey(q, curve);
+    }
+
+    /**
+     * Verify many signed messages in parallel, hashed with SHA-256. Items are grouped by public key, so
+     * keys that sign many items get their multiples precomputed once for the whole batch
+     *
+     * @param items signed messages
+     * @param pool pool running the verification
+     * @return BitSet with bit i set if item i is valid
+     */
+    public static BitSet verifyBatch(List<SignedMessage> items, ForkJoinPool pool) {
+        return BatchVerification.verify(items, pool);
+    }
+
+    /**
+     * Verify many signed messages in parallel on a shared pool with one thread per processor
+     *
+     * @param items signed messages
+     * @return BitSet with bit i set if item i is valid
+     */
+    public static BitSet verifyBatch(List<SignedMessage> items) {
+        return verifyBatch(items, DefaultPool.pool);
+    }
+
+    /**
+     * Verify many signed messages, hashed with SHA-256, by folding their equations into one randomized
+     * multi-scalar multiplication. Invalid items are found by splitting the batch in halves, so this is
+     * fastest when almost every item is valid. Signatures without a recovery id are verified one by one
+     *
+     * @param items signed messages
+     * @return BitSet with bit i set if item i is valid
+     */
+    public static BitSet verifyBatchRandomized(List<SignedMessage> items) {
+        return BatchVerification.verifyRandomized(items, false);
+    }
+
+    /**
+     * Same as verifyBatchRandomized, but only tells whether every item is valid, stopping at the first invalid one
+     *
+     * @param items signed messages
+     * @return true if every item is valid
+     */
+    public static boolean verifyAll(List<SignedMessage> items) {
+        return BatchVerification.verifyRandomized(items, true).cardinality() == items.size();
+    }
+
+    private static final class DefaultPool {
+        private static final ForkJoinPool pool = new ForkJoinPool();
     }
 }
@@ -0,0 +1,135 @@
+package com.starkbank.ellipticcurve;
+import com.starkbank.ellipticcurve.utils.BinaryAscii;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Signs messages with a fixed private key. The curve tables are built when the signer is created and
+ * digests are borrowed from a shared pool, so one signer can be created at startup and used by every thread.
+ *
+ * A deterministic signer takes its nonces from RFC 6979 instead of a random source, so the same message
+ * always gives the same signature. A signer created with a NoncePool takes precomputed nonces from it.
+ */
+public class EcdsaSigner {
+
+    public final PrivateKey privateKey;
+    public final boolean deterministic;
+    private final NoncePool noncePool;
+    private final String algorithm;
+
+    /**
+     *
+     * @param privateKey privateKey
+     */
+    public EcdsaSigner(PrivateKey privateKey) {
+        this(privateKey, "SHA-256");
+    }
+
+    /**
+     *
+     * @param privateKey privateKey
+     * @param algorithm name of the digest algorithm, such as SHA-256
+     */
+    public EcdsaSigner(PrivateKey privateKey, String algorithm) {
+        this(privateKey, algorithm, false);
+    }
+
+    /**
+     *
+     * @param privateKey privateKey
+     * @param algorithm name of the digest algorithm, such as SHA-256
+     * @param deterministic true to derive nonces from the key and message hash as in RFC 6979, with the HMAC of the same digest algorithm
+     */
+    public EcdsaSigner(PrivateKey privateKey, String algorithm, boolean deterministic) {
+        this(privateKey, algorithm, deterministic, null);
+    }
+
+    /**
+     *
+     * @param privateKey privateKey
+     * @param algorithm name of the digest algorithm, such as SHA-256
+     * @param noncePool pool of precomputed nonces on the curve of the private key
+     */
+    public EcdsaSigner(PrivateKey privateKey, String algorithm, NoncePool noncePool) {
+        this(privateKey, algorithm, false, noncePool);
+    }
+
+    private EcdsaSigner(PrivateKey privateKey, String algorithm, boolean deterministic, NoncePool noncePool) {
+        if (noncePool != null && noncePool.curve != privateKey.curve) {
+            throw new IllegalArgumentException(String.format("Nonce pool curve %s does not match private key curve %s", noncePool.curve.name, privateKey.curve.name));
+        }
+        this.privateKey = privateKey;
+        this.deterministic = deterministic;
+        this.noncePool = noncePool;
+        this.algorithm = algorithm;
+        DigestPool.of(algorithm);
+        if (deterministic) {
+            DeterministicNonce.mac(algorithm);
+        }
+        privateKey.curve.generatorTable();
+    }
+
+    /**
+     *
+     * @param message message
+     * @return Signature
+     */
+    public Signature sign(String message) {
+        return signHash(DigestPool.of(algorithm).digest(message.getBytes()));
+    }
+
+    /**
+     *
+     * @param message message
+     * @return Signature
+     */
+    public Signature sign(byte[] message) {
+        return signHash(DigestPool.of(algorithm).digest(message));
+    }
+
+    /**
+     *
+     * @param message message
+     * @param offset index of the first byte of the message
+     * @param length number of bytes of the message
+     * @return Signature
+     */
+    public Signature sign(byte[] message, int offset, int length) {
+        return signHash(DigestPool.of(algorithm).digest(message, offset, length));
+    }
+
+    /**
+     *
+     * @param message bytes between the position and the limit of the buffer, whose position is left untouched
+     * @return Signature
+     */
+    public Signature sign(ByteBuffer message) {
+        return signHash(DigestPool.of(algorithm).digest(message));
+    }
+
+    /**
+     *
+     * @param hashMessage hash of the message, computed with the algorithm of this signer
+     * @return Signature
+     */
+    public Signature signHash(byte[] hashMessage) {
+        BigInteger numberMessage = BinaryAscii.numberFromString(hashMessage);
+        if (deterministic) {
+            return Ecdsa.sign(numberMessage, privateKey, DeterministicNonce.generate(privateKey, algorithm, hashMessage));
+        }
+        if (noncePool != null) {
+            return Ecdsa.sign(numberMessage, privateKey, noncePool.take());
+        }
+        return Ecdsa.sign(numberMessage, privateKey);
+    }
+
+    /**
+     * Start a message to be fed in pieces, for payloads too large to hold in memory
+     *
+     * @return SigningStream that signs with this signer
+     */
+    public SigningStream stream() {
+        return new SigningStream(this, DigestPool.of(algorithm).create());
+    }
+}
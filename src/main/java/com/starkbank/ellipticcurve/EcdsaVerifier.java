@@ -0,0 +1,98 @@
+package com.starkbank.ellipticcurve;
+import com.starkbank.ellipticcurve.utils.BinaryAscii;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Verifies signatures against a fixed public key. The multiples of the public point are precomputed
+ * once, when the verifier is created, and digests are borrowed from a shared pool, so one verifier can be
+ * created at startup and used by every thread.
+ */
+public class EcdsaVerifier {
+
+    public final PublicKey publicKey;
+    private final PointTable table;
+    private final String algorithm;
+
+    /**
+     *
+     * @param publicKey publicKey
+     */
+    public EcdsaVerifier(PublicKey publicKey) {
+        this(publicKey, "SHA-256");
+    }
+
+    /**
+     *
+     * @param publicKey publicKey
+     * @param algorithm name of the digest algorithm, such as SHA-256
+     */
+    public EcdsaVerifier(PublicKey publicKey, String algorithm) {
+        this.publicKey = publicKey;
+        this.table = new PointTable(publicKey.curve, publicKey.point, PublicKeyCache.WINDOW);
+        this.algorithm = algorithm;
+        DigestPool.of(algorithm);
+        publicKey.curve.generatorMultiples();
+    }
+
+    /**
+     *
+     * @param message message
+     * @param signature signature
+     * @return boolean
+     */
+    public boolean verify(String message, Signature signature) {
+        return verifyHash(DigestPool.of(algorithm).digest(message.getBytes()), signature);
+    }
+
+    /**
+     *
+     * @param message message
+     * @param signature signature
+     * @return boolean
+     */
+    public boolean verify(byte[] message, Signature signature) {
+        return verifyHash(DigestPool.of(algorithm).digest(message), signature);
+    }
+
+    /**
+     *
+     * @param message message
+     * @param offset index of the first byte of the message
+     * @param length number of bytes of the message
+     * @param signature signature
+     * @return boolean
+     */
+    public boolean verify(byte[] message, int offset, int length, Signature signature) {
+        return verifyHash(DigestPool.of(algorithm).digest(message, offset, length), signature);
+    }
+
+    /**
+     *
+     * @param message bytes between the position and the limit of the buffer, whose position is left untouched
+     * @param signature signature
+     * @return boolean
+     */
+    public boolean verify(ByteBuffer message, Signature signature) {
+        return verifyHash(DigestPool.of(algorithm).digest(message), signature);
+    }
+
+    /**
+     *
+     * @param hashMessage hash of the message, computed with the algorithm of this verifier
+     * @param signature signature
+     * @return boolean
+     */
+    public boolean verifyHash(byte[] hashMessage, Signature signature) {
+        return Ecdsa.verify(BinaryAscii.numberFromString(hashMessage), signature, publicKey, table);
+    }
+
+    /**
+     * Start a message to be fed in pieces, for payloads too large to hold in memory
+     *
+     * @return VerifyingStream that verifies with this verifier
+     */
+    public VerifyingStream stream() {
+        return new VerifyingStream(this, DigestPool.of(algorithm).create());
+    }
+}
@@ -0,0 +1,386 @@
+package com.starkbank.ellipticcurve;
+import java.math.BigInteger;
+
+
+/**
+ * Arithmetic modulo the prime P of a curve on fixed-width elements: each element is a long[] of
+ * 26-bit limbs, least significant first, always kept reduced to [0, P).
+ *
+ * Operations write into a caller provided element and never allocate. Implementations may keep
+ * scratch space, so an instance must not be shared between threads: use copy() to get another one.
+ */
+abstract class Field {
+
+    static final int LIMB_BITS = 26;
+    static final long LIMB_MASK = (1L << LIMB_BITS) - 1;
+
+    final BigInteger P;
+    final int size;
+    final long[] p;
+
+    /**
+     *
+     * @param P Prime number in the module of the equation Y^2 = X^3 + A*X + B (mod P)
+     * @param size Number of 26-bit limbs of each element
+     */
+    Field(BigInteger P, int size) {
+        this.P = P;
+        this.size = size;
+        this.p = new long[size];
+        toLimbs(P, this.p);
+    }
+
+    /**
+     * Pick the fastest arithmetic available for the prime P: a dedicated implementation for secp256k1,
+     * folding reduction for other primes of the form 2^k - c and Montgomery representation for any other prime
+     *
+     * @param P Prime number in the module of the equation Y^2 = X^3 + A*X + B (mod P)
+     * @return Field
+     */
+    static Field of(BigInteger P) {
+        if (Secp256k1Field.P.equals(P)) {
+            return new Secp256k1Field();
+        }
+        if (PseudoMersenneField.accepts(P)) {
+            return new PseudoMersenneField(P);
+        }
+        return new MontgomeryField(P);
+    }
+
+    /**
+     *
+     * @return Field with the same modulus and its own scratch space
+     */
+    abstract Field copy();
+
+    /**
+     * r = a * b (mod P)
+     *
+     * @param r result, may be a or b
+     * @param a a
+     * @param b b
+     */
+    abstract void mul(long[] r, long[] a, long[] b);
+
+    /**
+     * r = a^2 (mod P)
+     *
+     * @param r result, may be a
+     * @param a a
+     */
+    abstract void sqr(long[] r, long[] a);
+
+    /**
+     * r = a + b (mod P)
+     *
+     * @param r result, may be a or b
+     * @param a a
+     * @param b b
+     */
+    void add(long[] r, long[] a, long[] b) {
+        long carry = 0;
+        for (int i = 0; i < size; i++) {
+            long limb = a[i] + b[i] + carry;
+            r[i] = limb & LIMB_MASK;
+            carry = limb >>> LIMB_BITS;
+        }
+        if (!lessThanP(r)) {
+            subtractP(r);
+        }
+    }
+
+    /**
+     * r = a - b (mod P)
+     *
+     * @param r result, may be a or b
+     * @param a a
+     * @param b b
+     */
+    void sub(long[] r, long[] a, long[] b) {
+        long borrow = 0;
+        for (int i = 0; i < size; i++) {
+            long limb = a[i] - b[i] - borrow;
+            r[i] = limb & LIMB_MASK;
+            borrow = limb < 0 ? 1 : 0;
+        }
+        if (borrow != 0) {
+            long carry = 0;
+            for (int i = 0; i < size; i++) {
+                long limb = r[i] + p[i] + carry;
+                r[i] = limb & LIMB_MASK;
+                carry = limb >>> LIMB_BITS;
+            }
+        }
+    }
+
+    /**
+     * r = -a (mod P)
+     *
+     * @param r result, may be a
+     * @param a a
+     */
+    void neg(long[] r, long[] a) {
+        if (isZero(a)) {
+            set(r, a);
+            return;
+        }
+        long borrow = 0;
+        for (int i = 0; i < size; i++) {
+            long limb = p[i] - a[i] - borrow;
+            r[i] = limb & LIMB_MASK;
+            borrow = limb < 0 ? 1 : 0;
+        }
+    }
+
+    /**
+     * r = a^-1 (mod P), with r = 0 if a = 0
+     *
+     * @param r result, may be a
+     * @param a a
+     */
+    void inv(long[] r, long[] a) {
+        set(r, element(Math.inv(toBigInteger(a), P)));
+    }
+
+    /**
+     * r = a^e (mod P), with a fixed 4-bit window
+     *
+     * @param r result, may be a
+     * @param a a
+     * @param e non-negative exponent
+     */
+    void pow(long[] r, long[] a, BigInteger e) {
+        long[][] powers = new long[16][];
+        powers[1] = element();
+        set(powers[1], a);
+        for (int i = 2; i < powers.length; i++) {
+            powers[i] = element();
+            mul(powers[i], powers[i - 1], powers[1]);
+        }
+        long[] result = element(BigInteger.ONE);
+        boolean started = false;
+        for (int i = (e.bitLength() + 3) / 4 - 1; i >= 0; i--) {
+            if (started) {
+                for (int j = 0; j < 4; j++) {
+                    sqr(result, result);
+                }
+            }
+            int digit = 0;
+            for (int j = 3; j >= 0; j--) {
+                digit = (digit << 1) | (e.testBit(4 * i + j) ? 1 : 0);
+            }
+            if (digit != 0) {
+                if (started) {
+                    mul(result, result, powers[digit]);
+                } else {
+                    set(result, powers[digit]);
+                    started = true;
+                }
+            }
+        }
+        set(r, result);
+    }
+
+    /**
+     * r = a square root of a (mod P). For P = 3 (mod 4) it is a^((P+1)/4), otherwise Tonelli-Shanks is used
+     *
+     * @param r result, may be a
+     * @param a a
+     * @return false if a has no square root, in which case r is left untouched
+     */
+    boolean sqrt(long[] r, long[] a) {
+        if (P.testBit(1)) {
+            long[] root = element();
+            long[] square = element();
+            pow(root, a, P.add(BigInteger.ONE).shiftRight(2));
+            sqr(square, root);
+            if (!equal(square, a)) {
+                return false;
+            }
+            set(r, root);
+            return true;
+        }
+        BigInteger root = tonelliShanks(toBigInteger(a));
+        if (root == null) {
+            return false;
+        }
+        set(r, element(root));
+        return true;
+    }
+
+    private BigInteger tonelliShanks(BigInteger n) {
+        if (n.signum() == 0) {
+            return n;
+        }
+        BigInteger half = P.subtract(BigInteger.ONE).shiftRight(1);
+        if (!n.modPow(half, P).equals(BigInteger.ONE)) {
+            return null;
+        }
+        BigInteger q = P.subtract(BigInteger.ONE);
+        int m = 0;
+        while (!q.testBit(0)) {
+            q = q.shiftRight(1);
+            m++;
+        }
+        BigInteger z = BigInteger.valueOf(2);
+        while (!z.modPow(half, P).equals(P.subtract(BigInteger.ONE))) {
+            z = z.add(BigInteger.ONE);
+        }
+        BigInteger c = z.modPow(q, P);
+        BigInteger t = n.modPow(q, P);
+        BigInteger root = n.modPow(q.add(BigInteger.ONE).shiftRight(1), P);
+        while (!t.equals(BigInteger.ONE)) {
+            int i = 0;
+            BigInteger square = t;
+            while (!square.equals(BigInteger.ONE)) {
+                square = square.multiply(square).mod(P);
+                i++;
+            }
+            BigInteger b = c.modPow(BigInteger.ONE.shiftLeft(m - i - 1), P);
+            m = i;
+            c = b.multiply(b).mod(P);
+            t = t.multiply(c).mod(P);
+            root = root.multiply(b).mod(P);
+        }
+        return root;
+    }
+
+    /**
+     *
+     * @param r result
+     * @param a a
+     */
+    void set(long[] r, long[] a) {
+        System.arraycopy(a, 0, r, 0, size);
+    }
+
+    /**
+     *
+     * @param r result
+     */
+    void setZero(long[] r) {
+        for (int i = 0; i < size; i++) {
+            r[i] = 0;
+        }
+    }
+
+    /**
+     *
+     * @param a a
+     * @return true if a = 0
+     */
+    boolean isZero(long[] a) {
+        long bits = 0;
+        for (int i = 0; i < size; i++) {
+            bits |= a[i];
+        }
+        return bits == 0;
+    }
+
+    /**
+     *
+     * @param a a
+     * @param b b
+     * @return true if a = b
+     */
+    boolean equal(long[] a, long[] b) {
+        long bits = 0;
+        for (int i = 0; i < size; i++) {
+            bits |= a[i] ^ b[i];
+        }
+        return bits == 0;
+    }
+
+    /**
+     *
+     * @return a new element set to zero
+     */
+    long[] element() {
+        return new long[size];
+    }
+
+    /**
+     *
+     * @param x integer to be converted, reduced modulo P if needed
+     * @return a new element representing x
+     */
+    long[] element(BigInteger x) {
+        if (x.signum() < 0 || x.compareTo(P) >= 0) {
+            x = x.mod(P);
+        }
+        long[] r = new long[size];
+        toLimbs(x, r);
+        return r;
+    }
+
+    /**
+     *
+     * @param a element
+     * @return integer represented by a
+     */
+    BigInteger toBigInteger(long[] a) {
+        return fromLimbs(a);
+    }
+
+    /**
+     *
+     * @param a 26-bit limbs, least significant first
+     * @return non-negative integer represented by the limbs
+     */
+    static BigInteger fromLimbs(long[] a) {
+        byte[] bytes = new byte[(a.length * LIMB_BITS + 7) / 8];
+        int index = bytes.length - 1;
+        long buffer = 0;
+        int bits = 0;
+        for (int i = 0; i < a.length; i++) {
+            buffer |= a[i] << bits;
+            bits += LIMB_BITS;
+            while (bits >= 8) {
+                bytes[index--] = (byte) buffer;
+                buffer >>>= 8;
+                bits -= 8;
+            }
+        }
+        if (index >= 0) {
+            bytes[index] = (byte) buffer;
+        }
+        return new BigInteger(1, bytes);
+    }
+
+    private boolean lessThanP(long[] a) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (a[i] != p[i]) {
+                return a[i] < p[i];
+            }
+        }
+        return false;
+    }
+
+    private void subtractP(long[] a) {
+        long borrow = 0;
+        for (int i = 0; i < size; i++) {
+            long limb = a[i] - p[i] - borrow;
+            a[i] = limb & LIMB_MASK;
+            borrow = limb < 0 ? 1 : 0;
+        }
+    }
+
+    static void toLimbs(BigInteger x, long[] r) {
+        byte[] bytes = x.toByteArray();
+        int limb = 0;
+        long buffer = 0;
+        int bits = 0;
+        for (int i = bytes.length - 1; i >= 0 && limb < r.length; i--) {
+            buffer |= (bytes[i] & 0xFFL) << bits;
+            bits += 8;
+            if (bits >= LIMB_BITS) {
+                r[limb++] = buffer & LIMB_MASK;
+                buffer >>>= LIMB_BITS;
+                bits -= LIMB_BITS;
+            }
+        }
+        if (limb < r.length) {
+            r[limb] = buffer;
+        }
+    }
+}
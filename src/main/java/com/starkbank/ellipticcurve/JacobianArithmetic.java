@@ -0,0 +1,414 @@
+package com.starkbank.ellipticcurve;
+import java.math.BigInteger;
+
+
+/**
+ * Point formulas in Jacobian coordinates on top of the limb arithmetic of a Field.
+ *
+ * Temporaries are kept in the instance, so the formulas never allocate, but an instance must not be
+ * shared between threads. Each scalar multiplication builds its own.
+ */
+final class JacobianArithmetic {
+
+    static final int A_GENERIC = 0;
+    static final int A_ZERO = 1;
+    static final int A_MINUS_THREE = 2;
+
+    final Field field;
+    final long[] a;
+    final int shape;
+    private final long[] one;
+    private final long[] t0;
+    private final long[] t1;
+    private final long[] t2;
+    private final long[] t3;
+    private final long[] t4;
+    private final long[] t5;
+    private final long[] t6;
+
+    /**
+     *
+     * @param field Field of the curve, not shared with other threads
+     * @param A Coefficient of the first-order term of the equation Y^2 = X^3 + A*X + B (mod P)
+     */
+    JacobianArithmetic(Field field, BigInteger A) {
+        this.field = field;
+        this.a = field.element(A);
+        this.shape = shape(A, field.P);
+        this.one = field.element(BigInteger.ONE);
+        this.t0 = field.element();
+        this.t1 = field.element();
+        this.t2 = field.element();
+        this.t3 = field.element();
+        this.t4 = field.element();
+        this.t5 = field.element();
+        this.t6 = field.element();
+    }
+
+    /**
+     *
+     * @param curve Curve whose points will be handled
+     */
+    JacobianArithmetic(Curve curve) {
+        this(curve.field.copy(), curve.A);
+    }
+
+    /**
+     * Classify the A coefficient, which picks the doubling formula
+     *
+     * @param A Coefficient of the first-order term of the equation Y^2 = X^3 + A*X + B (mod P)
+     * @param P Prime number in the module of the equation Y^2 = X^3 + A*X + B (mod P)
+     * @return A_ZERO, A_MINUS_THREE or A_GENERIC
+     */
+    static int shape(BigInteger A, BigInteger P) {
+        BigInteger a = A.mod(P);
+        if (a.signum() == 0) {
+            return A_ZERO;
+        }
+        if (a.equals(P.subtract(BigInteger.valueOf(3)))) {
+            return A_MINUS_THREE;
+        }
+        return A_GENERIC;
+    }
+
+    /**
+     *
+     * @return a new point at infinity
+     */
+    JacobianPoint point() {
+        return new JacobianPoint(field.size);
+    }
+
+    /**
+     *
+     * @param p Point in affine coordinates, with y = 0 at infinity
+     * @return the same point in Jacobian coordinates
+     */
+    JacobianPoint fromAffine(Point p) {
+        JacobianPoint r = point();
+        if (p.isAtInfinity()) {
+            return r;
+        }
+        field.set(r.x, field.element(p.x));
+        field.set(r.y, field.element(p.y));
+        field.set(r.z, one);
+        r.affine = true;
+        return r;
+    }
+
+    /**
+     *
+     * @param p Point in Jacobian coordinates, with y = 0 at infinity
+     * @return the same point with Field coordinates
+     */
+    JacobianPoint fromJacobian(Point p) {
+        JacobianPoint r = point();
+        if (p.isAtInfinity()) {
+            return r;
+        }
+        field.set(r.x, field.element(p.x));
+        field.set(r.y, field.element(p.y));
+        field.set(r.z, field.element(p.z));
+        r.affine = field.equal(r.z, one);
+        return r;
+    }
+
+    /**
+     *
+     * @param p point
+     * @return the same point in affine coordinates, or (0, 0) at infinity
+     */
+    Point toAffine(JacobianPoint p) {
+        if (isInfinity(p)) {
+            return new Point(BigInteger.ZERO, BigInteger.ZERO, BigInteger.ZERO);
+        }
+        if (field.equal(p.z, one)) {
+            return new Point(field.toBigInteger(p.x), field.toBigInteger(p.y), BigInteger.ZERO);
+        }
+        field.inv(t0, p.z);
+        field.sqr(t1, t0);
+        field.mul(t2, p.x, t1);
+        field.mul(t1, t1, t0);
+        field.mul(t3, p.y, t1);
+        return new Point(field.toBigInteger(t2), field.toBigInteger(t3), BigInteger.ZERO);
+    }
+
+    /**
+     *
+     * @param p point
+     * @return the same point as BigInteger Jacobian coordinates, or (0, 0, 1) at infinity
+     */
+    Point toJacobian(JacobianPoint p) {
+        if (isInfinity(p)) {
+            return new Point(BigInteger.ZERO, BigInteger.ZERO, BigInteger.ONE);
+        }
+        return new Point(field.toBigInteger(p.x), field.toBigInteger(p.y), field.toBigInteger(p.z));
+    }
+
+    /**
+     * Bring every point to z = 1 with a single field inversion (Montgomery's trick): the product of all z
+     * is inverted once and each z^-1 is recovered from it with 3 multiplications per point
+     *
+     * @param points points to be normalized in place, points at infinity are left untouched
+     */
+    void normalize(JacobianPoint[] points) {
+        long[][] prefix = new long[points.length][];
+        long[] product = field.element();
+        field.set(product, one);
+        for (int i = 0; i < points.length; i++) {
+            if (isInfinity(points[i])) {
+                continue;
+            }
+            prefix[i] = field.element();
+            field.set(prefix[i], product);
+            field.mul(product, product, points[i].z);
+        }
+        field.inv(product, product);
+        for (int i = points.length - 1; i >= 0; i--) {
+            JacobianPoint p = points[i];
+            if (prefix[i] == null) {
+                continue;
+            }
+            field.mul(t0, product, prefix[i]);
+            field.mul(product, product, p.z);
+            field.sqr(t1, t0);
+            field.mul(p.x, p.x, t1);
+            field.mul(t1, t1, t0);
+            field.mul(p.y, p.y, t1);
+            field.set(p.z, one);
+            p.affine = true;
+        }
+    }
+
+    /**
+     *
+     * @param p point
+     * @return true if p is the point at infinity
+     */
+    boolean isInfinity(JacobianPoint p) {
+        return field.isZero(p.z);
+    }
+
+    /**
+     *
+     * @param r point to be set to infinity
+     */
+    void setInfinity(JacobianPoint r) {
+        field.setZero(r.z);
+        r.affine = false;
+    }
+
+    /**
+     *
+     * @param r result
+     * @param p point to be copied
+     */
+    void set(JacobianPoint r, JacobianPoint p) {
+        field.set(r.x, p.x);
+        field.set(r.y, p.y);
+        field.set(r.z, p.z);
+        r.affine = p.affine;
+    }
+
+    /**
+     * r = -p
+     *
+     * @param r result, may be p
+     * @param p point
+     */
+    void negate(JacobianPoint r, JacobianPoint p) {
+        field.set(r.x, p.x);
+        field.neg(r.y, p.y);
+        field.set(r.z, p.z);
+        r.affine = p.affine;
+    }
+
+    /**
+     * r = (beta*x, y), the image of p by the curve endomorphism
+     *
+     * @param r result, may be p
+     * @param p point
+     * @param beta Cube root of unity modulo P as a Field element
+     */
+    void endomorphism(JacobianPoint r, JacobianPoint p, long[] beta) {
+        field.mul(r.x, p.x, beta);
+        field.set(r.y, p.y);
+        field.set(r.z, p.z);
+        r.affine = p.affine;
+    }
+
+    /**
+     * r = 2p
+     *
+     * @param r result, may be p
+     * @param p point
+     */
+    void dbl(JacobianPoint r, JacobianPoint p) {
+        if (isInfinity(p) || field.isZero(p.y)) {
+            field.setZero(r.z);
+            r.affine = false;
+            return;
+        }
+        switch (shape) {
+            case A_ZERO:
+                dblZero(r, p);
+                break;
+            case A_MINUS_THREE:
+                dblMinusThree(r, p);
+                break;
+            default:
+                dblGeneric(r, p);
+        }
+        r.affine = false;
+    }
+
+    /**
+     * Doubling for A = 0 (2M + 5S)
+     */
+    private void dblZero(JacobianPoint r, JacobianPoint p) {
+        field.sqr(t0, p.x);
+        field.sqr(t1, p.y);
+        field.sqr(t2, t1);
+        field.add(t3, p.x, t1);
+        field.sqr(t3, t3);
+        field.sub(t3, t3, t0);
+        field.sub(t3, t3, t2);
+        field.add(t3, t3, t3);
+        field.add(t4, t0, t0);
+        field.add(t4, t4, t0);
+        field.sqr(t5, t4);
+        field.mul(t6, p.y, p.z);
+        field.add(r.z, t6, t6);
+        field.add(t1, t3, t3);
+        field.sub(r.x, t5, t1);
+        field.sub(t3, t3, r.x);
+        field.mul(t3, t4, t3);
+        field.add(t2, t2, t2);
+        field.add(t2, t2, t2);
+        field.add(t2, t2, t2);
+        field.sub(r.y, t3, t2);
+    }
+
+    /**
+     * Doubling for A = -3, where 3X^2 + A*Z^4 = 3(X - Z^2)(X + Z^2) (3M + 5S)
+     */
+    private void dblMinusThree(JacobianPoint r, JacobianPoint p) {
+        field.sqr(t0, p.z);
+        field.sqr(t1, p.y);
+        field.mul(t2, p.x, t1);
+        field.sub(t3, p.x, t0);
+        field.add(t4, p.x, t0);
+        field.mul(t3, t3, t4);
+        field.add(t4, t3, t3);
+        field.add(t3, t4, t3);
+        field.add(t4, p.y, p.z);
+        field.sqr(t4, t4);
+        field.sub(t4, t4, t1);
+        field.sub(r.z, t4, t0);
+        field.sqr(t5, t3);
+        field.add(t2, t2, t2);
+        field.add(t2, t2, t2);
+        field.add(t6, t2, t2);
+        field.sub(r.x, t5, t6);
+        field.sub(t2, t2, r.x);
+        field.mul(t2, t3, t2);
+        field.sqr(t1, t1);
+        field.add(t1, t1, t1);
+        field.add(t1, t1, t1);
+        field.add(t1, t1, t1);
+        field.sub(r.y, t2, t1);
+    }
+
+    /**
+     * Doubling for any A (4M + 6S)
+     */
+    private void dblGeneric(JacobianPoint r, JacobianPoint p) {
+        field.sqr(t0, p.y);
+        field.mul(t1, p.x, t0);
+        field.add(t1, t1, t1);
+        field.add(t1, t1, t1);
+        field.sqr(t2, p.x);
+        field.add(t3, t2, t2);
+        field.add(t2, t3, t2);
+        field.sqr(t3, p.z);
+        field.sqr(t3, t3);
+        field.mul(t3, a, t3);
+        field.add(t2, t2, t3);
+        field.mul(t4, p.y, p.z);
+        field.add(r.z, t4, t4);
+        field.sqr(t3, t2);
+        field.add(t5, t1, t1);
+        field.sub(r.x, t3, t5);
+        field.sub(t3, t1, r.x);
+        field.mul(t3, t2, t3);
+        field.sqr(t0, t0);
+        field.add(t0, t0, t0);
+        field.add(t0, t0, t0);
+        field.add(t0, t0, t0);
+        field.sub(r.y, t3, t0);
+    }
+
+    /**
+     * r = p + q, with the mixed formula (8M + 3S instead of 12M + 4S) when either point has z = 1
+     *
+     * @param r result, may be p or q
+     * @param p first point
+     * @param q second point
+     */
+    void add(JacobianPoint r, JacobianPoint p, JacobianPoint q) {
+        if (isInfinity(p)) {
+            set(r, q);
+            return;
+        }
+        if (isInfinity(q)) {
+            set(r, p);
+            return;
+        }
+        if (p.affine && !q.affine) {
+            add(r, q, p);
+            return;
+        }
+        if (q.affine) {
+            field.set(t1, p.x);
+            field.set(t2, p.y);
+        } else {
+            field.sqr(t0, q.z);
+            field.mul(t1, p.x, t0);
+            field.mul(t0, t0, q.z);
+            field.mul(t2, p.y, t0);
+        }
+        field.sqr(t0, p.z);
+        field.mul(t3, q.x, t0);
+        field.mul(t0, t0, p.z);
+        field.mul(t4, q.y, t0);
+        if (field.equal(t1, t3)) {
+            if (!field.equal(t2, t4)) {
+                field.setZero(r.z);
+                r.affine = false;
+                return;
+            }
+            dbl(r, p);
+            return;
+        }
+        field.sub(t3, t3, t1);
+        field.sub(t4, t4, t2);
+        field.sqr(t0, t3);
+        field.mul(t5, t3, t0);
+        field.mul(t1, t1, t0);
+        if (q.affine) {
+            field.mul(r.z, t3, p.z);
+        } else {
+            field.mul(t6, p.z, q.z);
+            field.mul(r.z, t3, t6);
+        }
+        r.affine = false;
+        field.sqr(t0, t4);
+        field.sub(t0, t0, t5);
+        field.sub(t0, t0, t1);
+        field.sub(r.x, t0, t1);
+        field.sub(t1, t1, r.x);
+        field.mul(t1, t4, t1);
+        field.mul(t2, t2, t5);
+        field.sub(r.y, t1, t2);
+    }
+}
@@ -0,0 +1,27 @@
+package com.starkbank.ellipticcurve;
+
+
+/**
+ * Mutable point in Jacobian coordinates (X, Y, Z), representing the affine point (X/Z^2, Y/Z^3),
+ * with each coordinate stored as a Field element. Z = 0 represents the point at infinity.
+ *
+ * The affine flag records that Z = 1, so additions with this point can take the cheaper mixed formula.
+ * It is maintained by JacobianArithmetic on every write.
+ */
+final class JacobianPoint {
+
+    final long[] x;
+    final long[] y;
+    final long[] z;
+    boolean affine;
+
+    /**
+     *
+     * @param size Number of limbs of each coordinate
+     */
+    JacobianPoint(int size) {
+        this.x = new long[size];
+        this.y = new long[size];
+        this.z = new long[size];
+    }
+}
@@ -4,6 +4,21 @@ import java.math.BigInteger;
 
 public final class Math {
 
+    /**
+     * Number of scalar bits consumed per row of the fixed-base generator table
+     */
+    static final int FIXED_BASE_WINDOW = 4;
+
+    /**
+     * Width of the non-adjacent form used by variable-base multiplication
+     */
+    static final int WNAF_WINDOW = 5;
+
+    /**
+     * Width of the non-adjacent form used for the generator, whose odd multiples are kept by the curve
+     */
+    static final int GENERATOR_WNAF_WINDOW = 8;
+
     /**
      * Fast way to multiply point and scalar in elliptic curves
      *
@@ -15,7 +30,135 @@ public final class Math {
      * @return Point that represents the sum of First and Second Point
      */
     public static Point multiply(Point p, BigInteger n, BigInteger N, BigInteger A, BigInteger P) {
-        return fromJacobian(jacobianMultiply(toJacobian(p), n, N, A, P), P);
+        JacobianArithmetic arithmetic = new JacobianArithmetic(Field.of(P), A);
+        return arithmetic.toAffine(jacobianMultiply(arithmetic, arithmetic.fromAffine(p), n, N));
+    }
+
+    /**
+     * Fast way to multiply point and scalar in elliptic curves. If the curve has an endomorphism, the scalar
+     * is split in two halves (GLV method), which halves the number of doublings
+     *
+     * @param p First Point to multiply
+     * @param n Scalar to multiply
+     * @param curve Curve the point belongs to
+     * @return Point that represents the product of First Point and scalar
+     */
+    public static Point multiply(Point p, BigInteger n, Curve curve) {
+        JacobianArithmetic arithmetic = new JacobianArithmetic(curve);
+        JacobianPoint q = arithmetic.fromAffine(p);
+        if (!curve.hasEndomorphism()) {
+            return arithmetic.toAffine(jacobianMultiply(arithmetic, q, n, curve.N));
+        }
+        JacobianPoint[] table = oddMultiples(arithmetic, q, WNAF_WINDOW);
+        arithmetic.normalize(table);
+        BigInteger[] halves = curve.splitScalar(n.mod(curve.N));
+        JacobianPoint[][] tables = new JacobianPoint[][]{table, endomorphism(arithmetic, table, curve.beta)};
+        int[][] nafs = new int[][]{wnaf(halves[0], WNAF_WINDOW), wnaf(halves[1], WNAF_WINDOW)};
+        return arithmetic.toAffine(jacobianMultiplyAndAdd(arithmetic, tables, nafs));
+    }
+
+    /**
+     * Fast way to multiply the curve generator and a scalar, using the fixed-base table kept by the curve
+     *
+     * @param curve Curve whose generator G will be multiplied
+     * @param n Scalar to multiply
+     * @return Point that represents the product of G and scalar
+     */
+    public static Point multiplyGenerator(Curve curve, BigInteger n) {
+        if (n.signum() < 0 || n.compareTo(curve.N) >= 0) {
+            n = n.mod(curve.N);
+        }
+        JacobianArithmetic arithmetic = new JacobianArithmetic(curve);
+        JacobianPoint[][] table = curve.generatorTable();
+        JacobianPoint result = arithmetic.point();
+        for (int i = 0; i < table.length; i++) {
+            int digit = 0;
+            for (int j = 0; j < FIXED_BASE_WINDOW; j++) {
+                if (n.testBit(i * FIXED_BASE_WINDOW + j)) {
+                    digit |= 1 << j;
+                }
+            }
+            if (digit != 0) {
+                arithmetic.add(result, result, table[i][digit - 1]);
+            }
+        }
+        return arithmetic.toAffine(result);
+    }
+
+    /**
+     * Fast way to compute n*p + m*q with a single shared doubling chain and a single conversion back from Jacobian coordinates
+     *
+     * @param p First Point to multiply
+     * @param n Scalar to multiply the first point
+     * @param q Second Point to multiply
+     * @param m Scalar to multiply the second point
+     * @param N Order of the elliptic curve
+     * @param A Coefficient of the first-order term of the equation Y^2 = X^3 + A*X + B (mod P)
+     * @param P Prime number in the module of the equation Y^2 = X^3 + A*X + B (mod P)
+     * @return Point that represents n*p + m*q
+     */
+    public static Point multiplyAndAdd(Point p, BigInteger n, Point q, BigInteger m, BigInteger N, BigInteger A, BigInteger P) {
+        JacobianArithmetic arithmetic = new JacobianArithmetic(Field.of(P), A);
+        JacobianPoint[][] tables = new JacobianPoint[][]{
+            oddMultiples(arithmetic, arithmetic.fromAffine(p), WNAF_WINDOW),
+            oddMultiples(arithmetic, arithmetic.fromAffine(q), WNAF_WINDOW),
+        };
+        arithmetic.normalize(tables[0]);
+        arithmetic.normalize(tables[1]);
+        int[][] nafs = new int[][]{wnaf(n.mod(N), WNAF_WINDOW), wnaf(m.mod(N), WNAF_WINDOW)};
+        return arithmetic.toAffine(jacobianMultiplyAndAdd(arithmetic, tables, nafs));
+    }
+
+    /**
+     * Fast way to compute n*G + m*q, using the generator odd multiples kept by the curve
+     *
+     * @param curve Curve whose generator G will be multiplied
+     * @param n Scalar to multiply the generator
+     * @param q Point to multiply
+     * @param m Scalar to multiply the point
+     * @return Point that represents n*G + m*q
+     */
+    public static Point multiplyGeneratorAndAdd(Curve curve, BigInteger n, Point q, BigInteger m) {
+        JacobianArithmetic arithmetic = new JacobianArithmetic(curve);
+        JacobianPoint[] table = oddMultiples(arithmetic, arithmetic.fromAffine(q), WNAF_WINDOW);
+        arithmetic.normalize(table);
+        JacobianPoint[] endomorphismTable = curve.hasEndomorphism() ? endomorphism(arithmetic, table, curve.beta) : null;
+        return multiplyGeneratorAndAdd(arithmetic, curve, n, table, endomorphismTable, WNAF_WINDOW, m);
+    }
+
+    /**
+     * Fast way to compute n*G + m*q, with the odd multiples of q already precomputed
+     *
+     * @param curve Curve whose generator G will be multiplied
+     * @param n Scalar to multiply the generator
+     * @param q Odd multiples of the point to multiply
+     * @param m Scalar to multiply the point
+     * @return Point that represents n*G + m*q
+     */
+    static Point multiplyGeneratorAndAdd(Curve curve, BigInteger n, PointTable q, BigInteger m) {
+        JacobianArithmetic arithmetic = new JacobianArithmetic(curve);
+        return multiplyGeneratorAndAdd(arithmetic, curve, n, q.multiples, q.endomorphism, q.window, m);
+    }
+
+    private static Point multiplyGeneratorAndAdd(JacobianArithmetic arithmetic, Curve curve, BigInteger n, JacobianPoint[] table, JacobianPoint[] endomorphismTable, int window, BigInteger m) {
+        PointTable generator = curve.generatorMultiples();
+        JacobianPoint[][] tables;
+        int[][] nafs;
+        if (curve.hasEndomorphism()) {
+            BigInteger[] nHalves = curve.splitScalar(n.mod(curve.N));
+            BigInteger[] mHalves = curve.splitScalar(m.mod(curve.N));
+            tables = new JacobianPoint[][]{generator.multiples, generator.endomorphism, table, endomorphismTable};
+            nafs = new int[][]{
+                wnaf(nHalves[0], generator.window),
+                wnaf(nHalves[1], generator.window),
+                wnaf(mHalves[0], window),
+                wnaf(mHalves[1], window),
+            };
+        } else {
+            tables = new JacobianPoint[][]{generator.multiples, table};
+            nafs = new int[][]{wnaf(n.mod(curve.N), generator.window), wnaf(m.mod(curve.N), window)};
+        }
+        return arithmetic.toAffine(jacobianMultiplyAndAdd(arithmetic, tables, nafs));
     }
 
     /**
@@ -27,13 +170,16 @@ public final class Math {
      * @param P Prime number in the module of the equation Y^2 = X^3 + A*X + B (mod P)
      * @return Point that represents the sum of First and Second Point
      */
-
     public static Point add(Point p, Point q, BigInteger A, BigInteger P) {
-        return fromJacobian(jacobianAdd(toJacobian(p), toJacobian(q), A, P), P);
+        JacobianArithmetic arithmetic = new JacobianArithmetic(Field.of(P), A);
+        JacobianPoint result = arithmetic.fromAffine(p);
+        arithmetic.add(result, result, arithmetic.fromAffine(q));
+        return arithmetic.toAffine(result);
     }
 
     /**
-     * Extended Euclidean Algorithm. It's the 'division' in elliptic curves
+     * Modular inverse, the 'division' in elliptic curves. Invertible values use BigInteger.modInverse;
+     * 0 gives 0 and other values without an inverse keep the result of the textbook Extended Euclidean Algorithm
      *
      * @param x Divisor
      * @param n Mod for division
@@ -43,6 +189,14 @@ public final class Math {
         if (x.compareTo(BigInteger.ZERO) == 0) {
             return BigInteger.ZERO;
         }
+        try {
+            return x.modInverse(n);
+        } catch (ArithmeticException e) {
+            return euclideanInverse(x, n);
+        }
+    }
+
+    private static BigInteger euclideanInverse(BigInteger x, BigInteger n) {
         BigInteger lm = BigInteger.ONE;
         BigInteger hm = BigInteger.ZERO;
         BigInteger high = n;
@@ -85,6 +239,27 @@ public final class Math {
         return new Point(x, y, BigInteger.ZERO);
     }
 
+    /**
+     * Convert many points back from Jacobian coordinates at the cost of a single inversion
+     *
+     * @param points the points you want to transform
+     * @param P Prime number in the module of the equation Y^2 = X^3 + A*X + B (mod P)
+     * @return Points in default coordinates, in the same order
+     */
+    public static Point[] fromJacobianBatch(Point[] points, BigInteger P) {
+        JacobianArithmetic arithmetic = new JacobianArithmetic(Field.of(P), BigInteger.ZERO);
+        JacobianPoint[] jacobian = new JacobianPoint[points.length];
+        for (int i = 0; i < points.length; i++) {
+            jacobian[i] = arithmetic.fromJacobian(points[i]);
+        }
+        arithmetic.normalize(jacobian);
+        Point[] affine = new Point[points.length];
+        for (int i = 0; i < points.length; i++) {
+            affine[i] = arithmetic.toAffine(jacobian[i]);
+        }
+        return affine;
+    }
+
     /**
      * Double a point in elliptic curves
      *
@@ -94,16 +269,10 @@ public final class Math {
      * @return the result point doubled in elliptic curves
      */
     public static Point jacobianDouble(Point p, BigInteger A, BigInteger P) {
-        if (p.y == null || p.y.equals(BigInteger.ZERO)) {
-            return new Point(BigInteger.ZERO, BigInteger.ZERO, BigInteger.ZERO);
-        }
-        BigInteger ysq = p.y.pow(2).mod(P);
-        BigInteger S = BigInteger.valueOf(4).multiply(p.x).multiply(ysq).mod(P);
-        BigInteger M = BigInteger.valueOf(3).multiply(p.x.pow(2)).add(A.multiply(p.z.pow(4))).mod(P);
-        BigInteger nx = M.pow(2).subtract(BigInteger.valueOf(2).multiply(S)).mod(P);
-        BigInteger ny = M.multiply(S.subtract(nx)).subtract(BigInteger.valueOf(8).multiply(ysq.pow(2))).mod(P);
-        BigInteger nz = BigInteger.valueOf(2).multiply(p.y).multiply(p.z).mod(P);
-        return new Point(nx, ny, nz);
+        JacobianArithmetic arithmetic = new JacobianArithmetic(Field.of(P), A);
+        JacobianPoint result = arithmetic.fromJacobian(p);
+        arithmetic.dbl(result, result);
+        return arithmetic.toJacobian(result);
     }
 
     /**
@@ -116,35 +285,43 @@ public final class Math {
      * @return Point that represents the sum of First and Second Point
      */
     public static Point jacobianAdd(Point p, Point q, BigInteger A, BigInteger P) {
-        if (p.y == null || p.y.equals(BigInteger.ZERO)) {
-            return q;
-        }
-        if (q.y == null || q.y.equals(BigInteger.ZERO)) {
-            return p;
-        }
-        BigInteger U1 = p.x.multiply(q.z.pow(2)).mod(P);
-        BigInteger U2 = q.x.multiply(p.z.pow(2)).mod(P);
-        BigInteger S1 = p.y.multiply(q.z.pow(3)).mod(P);
-        BigInteger S2 = q.y.multiply(p.z.pow(3)).mod(P);
-        if (U1.compareTo(U2) == 0) {
-            if (S1.compareTo(S2) != 0) {
-                return new Point(BigInteger.ZERO, BigInteger.ZERO, BigInteger.ONE);
+        JacobianArithmetic arithmetic = new JacobianArithmetic(Field.of(P), A);
+        JacobianPoint result = arithmetic.fromJacobian(p);
+        arithmetic.add(result, result, arithmetic.fromJacobian(q));
+        return arithmetic.toJacobian(result);
+    }
+
+    /**
+     * Build a fixed-base table for point p, in which row i holds j * 2^(w*i) * p for j = 1..2^w-1 in affine coordinates
+     *
+     * @param arithmetic Point formulas of the curve
+     * @param p Point to be precomputed
+     * @param rows Number of w-bit windows covered by the table
+     * @return Table of precomputed points
+     */
+    static JacobianPoint[][] fixedBaseTable(JacobianArithmetic arithmetic, Point p, int rows) {
+        int width = (1 << FIXED_BASE_WINDOW) - 1;
+        JacobianPoint[][] table = new JacobianPoint[rows][width];
+        JacobianPoint[] entries = new JacobianPoint[rows * width];
+        JacobianPoint base = arithmetic.fromAffine(p);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < width; j++) {
+                table[i][j] = arithmetic.point();
+                if (j == 0) {
+                    arithmetic.set(table[i][j], base);
+                } else {
+                    arithmetic.add(table[i][j], table[i][j - 1], base);
+                }
+                entries[i * width + j] = table[i][j];
             }
-            return jacobianDouble(p, A, P);
+            arithmetic.add(base, table[i][width - 1], base);
         }
-        BigInteger H = U2.subtract(U1);
-        BigInteger R = S2.subtract(S1);
-        BigInteger H2 = H.multiply(H).mod(P);
-        BigInteger H3 = H.multiply(H2).mod(P);
-        BigInteger U1H2 = U1.multiply(H2).mod(P);
-        BigInteger nx = R.pow(2).subtract(H3).subtract(BigInteger.valueOf(2).multiply(U1H2)).mod(P);
-        BigInteger ny = R.multiply(U1H2.subtract(nx)).subtract(S1.multiply(H3)).mod(P);
-        BigInteger nz = H.multiply(p.z).multiply(q.z).mod(P);
-        return new Point(nx, ny, nz);
+        arithmetic.normalize(entries);
+        return table;
     }
 
     /**
-     * Multiply point and scalar in elliptic curves
+     * Multiply point and scalar in elliptic curves, scanning the scalar in width-w non-adjacent form
      *
      * @param p First Point to multiply
      * @param n Scalar to multiply
@@ -154,21 +331,255 @@ public final class Math {
      * @return Point that represents the product of First Point and scalar
      */
     public static Point jacobianMultiply(Point p, BigInteger n, BigInteger N, BigInteger A, BigInteger P) {
-        if (BigInteger.ZERO.compareTo(p.y) == 0 || BigInteger.ZERO.compareTo(n) == 0) {
-            return new Point(BigInteger.ZERO, BigInteger.ZERO, BigInteger.ONE);
+        JacobianArithmetic arithmetic = new JacobianArithmetic(Field.of(P), A);
+        return arithmetic.toJacobian(jacobianMultiply(arithmetic, arithmetic.fromJacobian(p), n, N));
+    }
+
+    /**
+     * Multiply point and scalar in elliptic curves, scanning the scalar in width-w non-adjacent form
+     *
+     * @param arithmetic Point formulas of the curve
+     * @param p First Point to multiply
+     * @param n Scalar to multiply
+     * @param N Order of the elliptic curve
+     * @return Point that represents the product of First Point and scalar
+     */
+    static JacobianPoint jacobianMultiply(JacobianArithmetic arithmetic, JacobianPoint p, BigInteger n, BigInteger N) {
+        if (n.signum() < 0 || n.compareTo(N) >= 0) {
+            n = n.mod(N);
+        }
+        if (arithmetic.isInfinity(p) || n.signum() == 0) {
+            return arithmetic.point();
+        }
+        JacobianPoint[][] tables = new JacobianPoint[][]{oddMultiples(arithmetic, p, WNAF_WINDOW)};
+        arithmetic.normalize(tables[0]);
+        int[][] nafs = new int[][]{wnaf(n, WNAF_WINDOW)};
+        return jacobianMultiplyAndAdd(arithmetic, tables, nafs);
+    }
+
+    /**
+     * Interleaved (Strauss-Shamir) multi-scalar multiplication: all terms share a single doubling chain
+     *
+     * @param arithmetic Point formulas of the curve
+     * @param tables Odd multiples of each point, as built by oddMultiples
+     * @param nafs Non-adjacent form digits of each scalar, as built by wnaf
+     * @return Point in Jacobian coordinates that represents the sum of all products
+     */
+    static JacobianPoint jacobianMultiplyAndAdd(JacobianArithmetic arithmetic, JacobianPoint[][] tables, int[][] nafs) {
+        int length = 0;
+        for (int[] naf : nafs) {
+            length = java.lang.Math.max(length, naf.length);
+        }
+        JacobianPoint result = arithmetic.point();
+        JacobianPoint negative = arithmetic.point();
+        for (int i = length - 1; i >= 0; i--) {
+            arithmetic.dbl(result, result);
+            for (int k = 0; k < nafs.length; k++) {
+                if (i >= nafs[k].length) {
+                    continue;
+                }
+                int digit = nafs[k][i];
+                if (digit > 0) {
+                    arithmetic.add(result, result, tables[k][digit >> 1]);
+                } else if (digit < 0) {
+                    arithmetic.negate(negative, tables[k][-digit >> 1]);
+                    arithmetic.add(result, result, negative);
+                }
+            }
         }
-        if (BigInteger.ONE.compareTo(n) == 0) {
-            return p;
+        return result;
+    }
+
+    /**
+     * Odd multiples p, 3p, 5p, ..., (2^(w-1) - 1)p used as lookup table by the wNAF multiplication.
+     * Callers normalize the table before the endomorphism images are taken, so every entry adds with the mixed formula
+     *
+     * @param arithmetic Point formulas of the curve
+     * @param p Point to be precomputed
+     * @param w Width of the non-adjacent form
+     * @return Table of odd multiples, where index i holds (2i + 1)p
+     */
+    static JacobianPoint[] oddMultiples(JacobianArithmetic arithmetic, JacobianPoint p, int w) {
+        JacobianPoint[] table = new JacobianPoint[1 << (w - 2)];
+        table[0] = p;
+        if (table.length > 1) {
+            JacobianPoint twice = arithmetic.point();
+            arithmetic.dbl(twice, p);
+            for (int i = 1; i < table.length; i++) {
+                table[i] = arithmetic.point();
+                arithmetic.add(table[i], table[i - 1], twice);
+            }
         }
-        if (n.compareTo(BigInteger.ZERO) < 0 || n.compareTo(N) >= 0) {
-            return jacobianMultiply(p, n.mod(N), N, A, P);
+        return table;
+    }
+
+    /**
+     * Apply the curve endomorphism (x, y) -&gt; (beta*x, y) to every point of a table
+     *
+     * @param arithmetic Point formulas of the curve
+     * @param table Points in Jacobian coordinates
+     * @param beta Cube root of unity modulo P
+     * @return Table with the endomorphism image of each point
+     */
+    static JacobianPoint[] endomorphism(JacobianArithmetic arithmetic, JacobianPoint[] table, BigInteger beta) {
+        long[] b = arithmetic.field.element(beta);
+        JacobianPoint[] image = new JacobianPoint[table.length];
+        for (int i = 0; i < table.length; i++) {
+            image[i] = arithmetic.point();
+            arithmetic.endomorphism(image[i], table[i], b);
         }
-        if (n.mod(BigInteger.valueOf(2)).compareTo(BigInteger.ZERO) == 0) {
-            return jacobianDouble(jacobianMultiply(p, n.divide(BigInteger.valueOf(2)), N, A, P), A, P);
+        return image;
+    }
+
+    /**
+     * Fast way to compute the sum of many products n_i*p_i with Pippenger's bucket method, which needs far
+     * fewer additions than multiplying each point on its own once there are more than a few points
+     *
+     * @param points Points to multiply
+     * @param scalars Scalars to multiply each point
+     * @param curve Curve the points belong to
+     * @return Point that represents the sum of all products
+     */
+    public static Point multiplyMany(Point[] points, BigInteger[] scalars, Curve curve) {
+        JacobianArithmetic arithmetic = new JacobianArithmetic(curve);
+        JacobianPoint[] jacobian = new JacobianPoint[points.length];
+        BigInteger[] reduced = new BigInteger[scalars.length];
+        for (int i = 0; i < points.length; i++) {
+            jacobian[i] = arithmetic.fromAffine(points[i]);
+            reduced[i] = scalars[i].mod(curve.N);
         }
-        if (n.mod(BigInteger.valueOf(2)).compareTo(BigInteger.ONE) == 0) {
-            return jacobianAdd(jacobianDouble(jacobianMultiply(p, n.divide(BigInteger.valueOf(2)), N, A, P), A, P), p, A, P);
+        return arithmetic.toAffine(multiplyMany(arithmetic, jacobian, reduced));
+    }
+
+    /**
+     * Pippenger's bucket method: scalars are cut in c-bit windows, and in each window every point is added to
+     * the bucket of its digit, after which a running sum weights each bucket by its digit
+     *
+     * @param arithmetic Point formulas of the curve
+     * @param points Points to multiply
+     * @param scalars Non-negative scalars to multiply each point
+     * @return Point in Jacobian coordinates that represents the sum of all products
+     */
+    static JacobianPoint multiplyMany(JacobianArithmetic arithmetic, JacobianPoint[] points, BigInteger[] scalars) {
+        int bits = 1;
+        for (BigInteger scalar : scalars) {
+            bits = java.lang.Math.max(bits, scalar.bitLength());
+        }
+        int c = 1;
+        long best = Long.MAX_VALUE;
+        for (int w = 1; w <= 16; w++) {
+            long cost = ((bits + w - 1) / w) * (points.length + (1L << (w + 1)));
+            if (cost < best) {
+                best = cost;
+                c = w;
+            }
+        }
+        JacobianPoint[] buckets = new JacobianPoint[(1 << c) - 1];
+        for (int j = 0; j < buckets.length; j++) {
+            buckets[j] = arithmetic.point();
+        }
+        JacobianPoint result = arithmetic.point();
+        JacobianPoint sum = arithmetic.point();
+        JacobianPoint weighted = arithmetic.point();
+        for (int window = (bits + c - 1) / c - 1; window >= 0; window--) {
+            for (int i = 0; i < c; i++) {
+                arithmetic.dbl(result, result);
+            }
+            for (JacobianPoint bucket : buckets) {
+                arithmetic.setInfinity(bucket);
+            }
+            for (int i = 0; i < points.length; i++) {
+                int digit = 0;
+                for (int j = c - 1; j >= 0; j--) {
+                    digit = (digit << 1) | (scalars[i].testBit(window * c + j) ? 1 : 0);
+                }
+                if (digit != 0) {
+                    arithmetic.add(buckets[digit - 1], buckets[digit - 1], points[i]);
+                }
+            }
+            arithmetic.setInfinity(sum);
+            arithmetic.setInfinity(weighted);
+            for (int j = buckets.length - 1; j >= 0; j--) {
+                arithmetic.add(sum, sum, buckets[j]);
+                arithmetic.add(weighted, weighted, sum);
+            }
+            arithmetic.add(result, result, weighted);
+        }
+        return result;
+    }
+
+    /**
+     * Point of the curve with the given x coordinate and y parity
+     *
+     * @param arithmetic Point formulas of the curve
+     * @param curve Curve the point belongs to
+     * @param x x coordinate
+     * @param odd true for the point with odd y
+     * @return Point with z = 1, or null if no point of the curve has this x coordinate
+     */
+    static JacobianPoint decompress(JacobianArithmetic arithmetic, Curve curve, BigInteger x, boolean odd) {
+        if (x.signum() < 0 || x.compareTo(curve.P) >= 0) {
+            return null;
+        }
+        Field field = arithmetic.field;
+        JacobianPoint p = arithmetic.fromAffine(new Point(x, BigInteger.ONE));
+        long[] y = p.y;
+        field.sqr(y, p.x);
+        field.add(y, y, arithmetic.a);
+        field.mul(y, y, p.x);
+        field.add(y, y, field.element(curve.B));
+        if (!field.sqrt(y, y)) {
+            return null;
+        }
+        if (field.isZero(y)) {
+            return null;
+        }
+        if (field.toBigInteger(y).testBit(0) != odd) {
+            field.neg(y, y);
+        }
+        return p;
+    }
+
+    /**
+     * Width-w non-adjacent form of a scalar. Every non-zero digit is odd and lies
+     * in (-2^(w-1), 2^(w-1)), and any w consecutive digits hold at most one non-zero value
+     *
+     * @param n Scalar to recode
+     * @param w Width of the non-adjacent form
+     * @return Signed digits, least significant first
+     */
+    static int[] wnaf(BigInteger n, int w) {
+        if (n.signum() < 0) {
+            int[] naf = wnaf(n.negate(), w);
+            for (int i = 0; i < naf.length; i++) {
+                naf[i] = -naf[i];
+            }
+            return naf;
+        }
+        int length = n.bitLength() + 1;
+        int[] naf = new int[length];
+        int carry = 0;
+        int i = 0;
+        while (i < length) {
+            if ((n.testBit(i) ? 1 : 0) == carry) {
+                i++;
+                continue;
+            }
+            int word = carry;
+            for (int j = 0; j < w; j++) {
+                if (n.testBit(i + j)) {
+                    word += 1 << j;
+                }
+            }
+            if (word >= 1 << (w - 1)) {
+                naf[i] = word - (1 << w);
+                carry = 1;
+            } else {
+                naf[i] = word;
+                carry = 0;
+            }
+            i += w;
         }
-        return null;
+        return naf;
     }
 }
@@ -0,0 +1,124 @@
+package com.starkbank.ellipticcurve;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+
+
+/**
+ * Message fed in pieces, hashed as it arrives, so payloads of any size are signed or verified without
+ * ever being held in memory. Channels and files are read in chunks into one direct buffer kept by the stream,
+ * so nothing is left mapped or allocated per call once an update returns.
+ *
+ * A stream belongs to a single message at a time and is not thread-safe. It is reset once the message is
+ * signed or verified, so it can be reused for the next one.
+ */
+public abstract class MessageStream {
+
+    /**
+     * Size of the chunks read from streams, channels and files
+     */
+    static final int CHUNK = 64 * 1024;
+
+    private final MessageDigest digest;
+    private byte[] chunk;
+    private ByteBuffer buffer;
+
+    MessageStream(MessageDigest digest) {
+        this.digest = digest;
+    }
+
+    /**
+     *
+     * @param bytes next bytes of the message
+     */
+    public void update(byte[] bytes) {
+        digest.update(bytes);
+    }
+
+    /**
+     *
+     * @param bytes next bytes of the message
+     * @param offset index of the first byte
+     * @param length number of bytes
+     */
+    public void update(byte[] bytes, int offset, int length) {
+        digest.update(bytes, offset, length);
+    }
+
+    /**
+     *
+     * @param buffer next bytes of the message, between the position and the limit of the buffer, which are consumed
+     */
+    public void update(ByteBuffer buffer) {
+        digest.update(buffer);
+    }
+
+    /**
+     * Read the stream to its end. The stream is not closed
+     *
+     * @param input next bytes of the message
+     * @throws IOException if the stream cannot be read
+     */
+    public void update(InputStream input) throws IOException {
+        byte[] chunk = chunk();
+        int count;
+        while ((count = input.read(chunk)) != -1) {
+            digest.update(chunk, 0, count);
+        }
+    }
+
+    /**
+     * Read the channel to its end. The channel is not closed
+     *
+     * @param channel next bytes of the message
+     * @throws IOException if the channel cannot be read
+     */
+    public void update(ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = buffer();
+        buffer.clear();
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+        }
+    }
+
+    /**
+     *
+     * @param path file whose whole content is the next bytes of the message
+     * @throws IOException if the file cannot be read
+     */
+    public void update(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            update(channel);
+        }
+    }
+
+    /**
+     * Finish the hash of the message and reset the stream
+     *
+     * @return hash of the message
+     */
+    byte[] digest() {
+        return digest.digest();
+    }
+
+    private byte[] chunk() {
+        if (chunk == null) {
+            chunk = new byte[CHUNK];
+        }
+        return chunk;
+    }
+
+    private ByteBuffer buffer() {
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(CHUNK);
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,115 @@
+package com.starkbank.ellipticcurve;
+import java.math.BigInteger;
+
+
+/**
+ * Arithmetic modulo any odd prime P in Montgomery representation: an integer a is kept as the
+ * element a*R (mod P), with R = 2^(26*size), so products are reduced by word-by-word Montgomery
+ * reduction instead of division. Conversion only happens in element(BigInteger) and toBigInteger.
+ *
+ * The constants R^2 (mod P) and -P^-1 (mod 2^26) are computed once and shared by every copy.
+ */
+final class MontgomeryField extends Field {
+
+    private final long[] r2;
+    private final long[] unit;
+    private final long pinv;
+    private final long[] wide;
+
+    /**
+     *
+     * @param P Odd prime number in the module of the equation Y^2 = X^3 + A*X + B (mod P)
+     */
+    MontgomeryField(BigInteger P) {
+        super(P, P.bitLength() / LIMB_BITS + 1);
+        BigInteger base = BigInteger.ONE.shiftLeft(LIMB_BITS);
+        this.pinv = P.modInverse(base).negate().mod(base).longValue();
+        this.r2 = new long[size];
+        toLimbs(BigInteger.ONE.shiftLeft(2 * LIMB_BITS * size).mod(P), this.r2);
+        this.unit = new long[size];
+        this.unit[0] = 1;
+        this.wide = new long[size + 1];
+    }
+
+    private MontgomeryField(MontgomeryField field) {
+        super(field.P, field.size);
+        this.pinv = field.pinv;
+        this.r2 = field.r2;
+        this.unit = field.unit;
+        this.wide = new long[size + 1];
+    }
+
+    @Override
+    Field copy() {
+        return new MontgomeryField(this);
+    }
+
+    /**
+     * r = a * b * R^-1 (mod P), which is the Montgomery form of the product of a and b
+     */
+    @Override
+    void mul(long[] r, long[] a, long[] b) {
+        long[] t = wide;
+        for (int i = 0; i <= size; i++) {
+            t[i] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            long ai = a[i];
+            long carry = 0;
+            for (int j = 0; j < size; j++) {
+                long value = t[j] + ai * b[j] + carry;
+                t[j] = value & LIMB_MASK;
+                carry = value >>> LIMB_BITS;
+            }
+            t[size] += carry;
+            long m = (t[0] * pinv) & LIMB_MASK;
+            carry = (t[0] + m * p[0]) >>> LIMB_BITS;
+            for (int j = 1; j < size; j++) {
+                long value = t[j] + m * p[j] + carry;
+                t[j - 1] = value & LIMB_MASK;
+                carry = value >>> LIMB_BITS;
+            }
+            long value = t[size] + carry;
+            t[size - 1] = value & LIMB_MASK;
+            t[size] = value >>> LIMB_BITS;
+        }
+        boolean subtract = t[size] != 0;
+        if (!subtract) {
+            subtract = true;
+            for (int i = size - 1; i >= 0; i--) {
+                if (t[i] != p[i]) {
+                    subtract = t[i] > p[i];
+                    break;
+                }
+            }
+        }
+        if (subtract) {
+            long borrow = 0;
+            for (int i = 0; i < size; i++) {
+                long value = t[i] - p[i] - borrow;
+                t[i] = value & LIMB_MASK;
+                borrow = value < 0 ? 1 : 0;
+            }
+        }
+        System.arraycopy(t, 0, r, 0, size);
+    }
+
+    @Override
+    void sqr(long[] r, long[] a) {
+        mul(r, a, a);
+    }
+
+    @Override
+    long[] element(BigInteger x) {
+        long[] r = super.element(x);
+        mul(r, r, r2);
+        return r;
+    }
+
+    @Override
+    BigInteger toBigInteger(long[] a) {
+        long[] r = new long[size];
+        mul(r, a, unit);
+        return super.toBigInteger(r);
+    }
+}
@@ -0,0 +1,33 @@
+package com.starkbank.ellipticcurve;
+import java.math.BigInteger;
+
+
+/**
+ * The message independent part of a signature: the inverse of the nonce k, r = (k*G).x mod N and the
+ * recovery id of k*G. The nonce itself is not kept once its inverse is known.
+ */
+final class Nonce {
+
+    final BigInteger kInverse;
+    final BigInteger r;
+    final int recoveryId;
+
+    private Nonce(BigInteger kInverse, BigInteger r, int recoveryId) {
+        this.kInverse = kInverse;
+        this.r = r;
+        this.recoveryId = recoveryId;
+    }
+
+    /**
+     *
+     * @param curve curve
+     * @param k nonce in [1, N)
+     * @return Nonce
+     */
+    static Nonce of(Curve curve, BigInteger k) {
+        Point randomSignPoint = Math.multiplyGenerator(curve, k);
+        BigInteger r = randomSignPoint.x.mod(curve.N);
+        int recoveryId = (randomSignPoint.y.testBit(0) ? 1 : 0) | (randomSignPoint.x.compareTo(curve.N) >= 0 ? 2 : 0);
+        return new Nonce(Math.inv(k, curve.N), r, recoveryId);
+    }
+}
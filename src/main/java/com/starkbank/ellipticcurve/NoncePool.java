@@ -0,0 +1,137 @@
+package com.starkbank.ellipticcurve;
+import com.starkbank.ellipticcurve.utils.RandomInteger;
+import java.math.BigInteger;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Bounded pool of precomputed nonces for one curve. The costly part of signing, k*G and k^-1, does
+ * not depend on the message, so background threads compute it ahead of time and keep the pool full;
+ * a signature that takes its nonce from the pool is left with a couple of multiplications mod N.
+ *
+ * Every nonce is removed from the pool by the signature that takes it, so no nonce is ever used twice.
+ * When the pool runs dry the nonce is computed on the calling thread. Producer threads are daemons;
+ * call shutdown to stop them when the pool is no longer needed. If a producer fails, for instance
+ * because the random source throws, the pool shuts itself down and the exception is kept in failure.
+ * The pool is only used by signers created with it, see EcdsaSigner.
+ */
+public class NoncePool {
+
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final AtomicInteger poolNumber = new AtomicInteger();
+
+    public final Curve curve;
+    private final int capacity;
+    private final ConcurrentLinkedQueue<Nonce> nonces = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger count = new AtomicInteger();
+    private final Thread[] producers;
+    private final AtomicInteger nextProducer = new AtomicInteger();
+    private volatile boolean running = true;
+    private volatile RuntimeException failure;
+
+    /**
+     *
+     * @param curve curve of the keys that will sign with this pool
+     * @param capacity Maximum number of precomputed nonces
+     * @param threads Number of background threads filling the pool
+     */
+    public NoncePool(Curve curve, int capacity, int threads) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.curve = curve;
+        this.capacity = capacity;
+        this.producers = new Thread[threads];
+        curve.generatorTable();
+        int number = poolNumber.incrementAndGet();
+        for (int i = 0; i < threads; i++) {
+            producers[i] = new Thread(new Producer(), "ecdsa-nonce-pool-" + number + "-" + i);
+            producers[i].setDaemon(true);
+            producers[i].start();
+        }
+    }
+
+    /**
+     *
+     * @return number of nonces ready or being computed
+     */
+    public int size() {
+        return count.get();
+    }
+
+    /**
+     *
+     * @return exception that stopped a producer and shut the pool down, or null
+     */
+    public RuntimeException failure() {
+        return failure;
+    }
+
+    /**
+     * Stop the background threads and drop every precomputed nonce. Signers using the pool keep working,
+     * computing each nonce when they sign
+     */
+    public void shutdown() {
+        running = false;
+        for (Thread producer : producers) {
+            LockSupport.unpark(producer);
+        }
+        while (nonces.poll() != null) {
+            count.decrementAndGet();
+        }
+    }
+
+    /**
+     * Remove a nonce from the pool, or compute one if the pool is empty
+     *
+     * @return Nonce that no other caller will get
+     */
+    Nonce take() {
+        Nonce nonce = nonces.poll();
+        if (nonce == null) {
+            return generate();
+        }
+        count.decrementAndGet();
+        int index = nextProducer.getAndIncrement() & Integer.MAX_VALUE;
+        LockSupport.unpark(producers[index % producers.length]);
+        return nonce;
+    }
+
+    private Nonce generate() {
+        return Nonce.of(curve, RandomInteger.between(BigInteger.ONE, curve.N));
+    }
+
+    private final class Producer implements Runnable {
+
+        @Override
+        public void run() {
+            while (running) {
+                if (count.incrementAndGet() > capacity) {
+                    count.decrementAndGet();
+                    LockSupport.parkNanos(NoncePool.this, IDLE_NANOS);
+                    continue;
+                }
+                Nonce nonce;
+                try {
+                    nonce = generate();
+                } catch (RuntimeException e) {
+                    count.decrementAndGet();
+                    failure = e;
+                    shutdown();
+                    return;
+                }
+                if (!running) {
+                    count.decrementAndGet();
+                    return;
+                }
+                nonces.offer(nonce);
+            }
+        }
+    }
+}
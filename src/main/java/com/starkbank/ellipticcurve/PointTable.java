@@ -0,0 +1,28 @@
+package com.starkbank.ellipticcurve;
+
+
+/**
+ * Odd multiples P, 3P, ..., (2^(w-1) - 1)P of a point normalized to z = 1, together with their
+ * endomorphism images on curves that have one. Never written after construction, so it can be
+ * shared by every thread.
+ */
+final class PointTable {
+
+    final int window;
+    final JacobianPoint[] multiples;
+    final JacobianPoint[] endomorphism;
+
+    /**
+     *
+     * @param curve Curve the point belongs to
+     * @param p Point to be precomputed
+     * @param window Width of the non-adjacent form the table will be used with
+     */
+    PointTable(Curve curve, Point p, int window) {
+        JacobianArithmetic arithmetic = new JacobianArithmetic(curve);
+        this.window = window;
+        this.multiples = Math.oddMultiples(arithmetic, arithmetic.fromAffine(p), window);
+        arithmetic.normalize(multiples);
+        this.endomorphism = curve.hasEndomorphism() ? Math.endomorphism(arithmetic, multiples, curve.beta) : null;
+    }
+}
@@ -1,6 +1,8 @@
 package com.starkbank.ellipticcurve;
 import com.starkbank.ellipticcurve.utils.ByteString;
 import com.starkbank.ellipticcurve.utils.Der;
+import com.starkbank.ellipticcurve.utils.DerReader;
+import com.starkbank.ellipticcurve.utils.DerWriter;
 import com.starkbank.ellipticcurve.utils.BinaryAscii;
 import com.starkbank.ellipticcurve.utils.RandomInteger;
 import java.math.BigInteger;
@@ -36,7 +38,7 @@ public class PrivateKey {
      */
     public PublicKey publicKey() {
         Curve curve = this.curve;
-        Point publicPoint = Math.multiply(curve.G, this.secret, curve.N, curve.A, curve.P);
+        Point publicPoint = Math.multiplyGenerator(curve, this.secret);
         return new PublicKey(publicPoint, curve);
     }
 
@@ -53,12 +55,25 @@ public class PrivateKey {
      * @return ByteString
      */
     public ByteString toDer() {
-        ByteString encodedPublicKey = this.publicKey().toByteString(true);
-        return Der.encodeSequence(
-                Der.encodeInteger(BigInteger.valueOf(1)),
-                Der.encodeOctetString(this.toByteString()),
-                Der.encodeConstructed(0, Der.encodeOid(this.curve.oid)),
-                Der.encodeConstructed(1, Der.encodeBitString(encodedPublicKey)));
+        PublicKey publicKey = this.publicKey();
+        int secretSize = curve.length();
+        int oidSize = DerWriter.objectSize(curve.oid);
+        int bitStringSize = publicKey.bitStringSize();
+        int contentSize = DerWriter.integerSize(BigInteger.ONE)
+                + DerWriter.headerSize(secretSize) + secretSize
+                + DerWriter.headerSize(oidSize) + oidSize
+                + DerWriter.headerSize(bitStringSize) + bitStringSize;
+        byte[] der = new byte[DerWriter.headerSize(contentSize) + contentSize];
+        DerWriter writer = new DerWriter(der, 0);
+        writer.writeSequence(contentSize);
+        writer.writeInteger(BigInteger.ONE);
+        writer.writeOctetString(secretSize);
+        writer.writeUnsigned(secret, secretSize);
+        writer.writeConstructed(0, oidSize);
+        writer.writeObject(curve.oid);
+        writer.writeConstructed(1, bitStringSize);
+        publicKey.writeBitString(writer);
+        return new ByteString(der);
     }
 
     /**
@@ -95,54 +110,25 @@ public class PrivateKey {
      * @return PrivateKey
      */
     public static PrivateKey fromDer(ByteString string) {
-        ByteString[] str = Der.removeSequence(string);
-        ByteString s = str[0];
-        ByteString empty = str[1];
-        if (!empty.isEmpty()) {
-            throw new RuntimeException(String.format("trailing junk after DER privkey: %s", BinaryAscii.hexFromBinary(empty)));
-        }
+        DerReader reader = new DerReader(string);
+        DerReader s = reader.readSequence();
+        reader.expectEmpty("DER privkey");
 
-        Object[] o = Der.removeInteger(s);
-        long one = Long.valueOf(o[0].toString());
-        s = (ByteString) o[1];
-        if (one != 1) {
+        BigInteger one = s.readInteger();
+        if (!one.equals(BigInteger.ONE)) {
             throw new RuntimeException(String.format("expected '1' at start of DER privkey, got %d", one));
         }
 
-        str = Der.removeOctetString(s);
-        ByteString privkeyStr = str[0];
-        s = str[1];
-        Object[] t = Der.removeConstructed(s);
-        long tag = Long.valueOf(t[0].toString());
-        ByteString curveOidStr = (ByteString) t[1];
-        s = (ByteString) t[2];
-        if (tag != 0) {
-            throw new RuntimeException(String.format("expected tag 0 in DER privkey, got %d", tag));
-        }
-
-        o = Der.removeObject(curveOidStr);
-        long[] oidCurve = (long[]) o[0];
-        empty = (ByteString) o[1];
-        if (!"".equals(empty.toString())) {
-            throw new RuntimeException(String.format("trailing junk after DER privkey curve_oid: %s", BinaryAscii.hexFromBinary(empty)));
-        }
+        DerReader privkeyStr = s.readOctetString();
+        DerReader curveOidStr = s.readConstructed(0);
+        long[] oidCurve = curveOidStr.readObject();
+        curveOidStr.expectEmpty("DER privkey curve_oid");
         Curve curve = (Curve) Curve.curvesByOid.get(Arrays.hashCode(oidCurve));
         if (curve == null) {
             throw new RuntimeException(String.format("Unknown curve with oid %s. I only know about these: %s", Arrays.toString(oidCurve), Arrays.toString(Curve.supportedCurves.toArray())));
         }
 
-        if (privkeyStr.length() < curve.length()) {
-            int l = curve.length() - privkeyStr.length();
-            byte[] bytes = new byte[l + privkeyStr.length()];
-            for (int i = 0; i < curve.length() - privkeyStr.length(); i++) {
-                bytes[i] = 0;
-            }
-            byte[] privateKey = privkeyStr.getBytes();
-            System.arraycopy(privateKey, 0, bytes, l, bytes.length - l);
-            privkeyStr = new ByteString(bytes);
-        }
-
-        return PrivateKey.fromString(privkeyStr, curve);
+        return new PrivateKey(curve, privkeyStr.readUnsigned(privkeyStr.remaining()));
     }
 
     /**
@@ -0,0 +1,130 @@
+package com.starkbank.ellipticcurve;
+import java.math.BigInteger;
+
+
+/**
+ * Arithmetic modulo a pseudo-Mersenne prime P = 2^k - c, with c of at most two limbs.
+ *
+ * Products are reduced without division: since 2^k = c (mod P), the bits of a product above
+ * position k are multiplied by c and folded back onto the low k bits until nothing is left above k.
+ */
+final class PseudoMersenneField extends Field {
+
+    private final int k;
+    private final long[] c;
+    private final long[] wide;
+    private final long[] high;
+
+    /**
+     *
+     * @param P Prime number of the form 2^k - c
+     */
+    PseudoMersenneField(BigInteger P) {
+        super(P, P.bitLength() / LIMB_BITS + 1);
+        this.k = P.bitLength();
+        BigInteger c = BigInteger.ONE.shiftLeft(k).subtract(P);
+        this.c = new long[]{
+            c.longValue() & LIMB_MASK,
+            c.shiftRight(LIMB_BITS).longValue() & LIMB_MASK,
+        };
+        this.wide = new long[2 * size + 2];
+        this.high = new long[2 * size + 2];
+    }
+
+    /**
+     *
+     * @param P Prime number in the module of the equation Y^2 = X^3 + A*X + B (mod P)
+     * @return true if P = 2^k - c, with c small enough to be folded in a couple of passes
+     */
+    static boolean accepts(BigInteger P) {
+        int k = P.bitLength();
+        BigInteger c = BigInteger.ONE.shiftLeft(k).subtract(P);
+        return k > 4 * LIMB_BITS && c.bitLength() <= 2 * LIMB_BITS;
+    }
+
+    @Override
+    Field copy() {
+        return new PseudoMersenneField(P);
+    }
+
+    @Override
+    void mul(long[] r, long[] a, long[] b) {
+        for (int i = 0; i < wide.length; i++) {
+            wide[i] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                wide[i + j] += a[i] * b[j];
+            }
+            carry(wide);
+        }
+        reduce(r);
+    }
+
+    @Override
+    void sqr(long[] r, long[] a) {
+        mul(r, a, a);
+    }
+
+    /**
+     * Reduce the product held in wide into r
+     */
+    private void reduce(long[] r) {
+        int limb = k / LIMB_BITS;
+        int shift = k % LIMB_BITS;
+        long lowMask = (1L << shift) - 1;
+        while (true) {
+            long bits = wide[limb] >>> shift;
+            for (int i = limb + 1; i < wide.length; i++) {
+                bits |= wide[i];
+            }
+            if (bits == 0) {
+                break;
+            }
+            for (int i = 0; i < high.length; i++) {
+                int index = limb + i;
+                long value = index < wide.length ? wide[index] >>> shift : 0;
+                if (index + 1 < wide.length) {
+                    value |= wide[index + 1] << (LIMB_BITS - shift);
+                }
+                high[i] = value & LIMB_MASK;
+            }
+            wide[limb] &= lowMask;
+            for (int i = limb + 1; i < wide.length; i++) {
+                wide[i] = 0;
+            }
+            for (int i = 0; i + 1 < high.length; i++) {
+                if (high[i] != 0) {
+                    wide[i] += high[i] * c[0];
+                    wide[i + 1] += high[i] * c[1];
+                }
+            }
+            carry(wide);
+        }
+        System.arraycopy(wide, 0, r, 0, size);
+        if (compare(r, p) >= 0) {
+            long borrow = 0;
+            for (int i = 0; i < size; i++) {
+                long value = r[i] - p[i] - borrow;
+                r[i] = value & LIMB_MASK;
+                borrow = value < 0 ? 1 : 0;
+            }
+        }
+    }
+
+    private static void carry(long[] a) {
+        for (int i = 0; i + 1 < a.length; i++) {
+            a[i + 1] += a[i] >>> LIMB_BITS;
+            a[i] &= LIMB_MASK;
+        }
+    }
+
+    private int compare(long[] a, long[] b) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (a[i] != b[i]) {
+                return a[i] < b[i] ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+}
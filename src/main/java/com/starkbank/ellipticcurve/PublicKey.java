@@ -1,7 +1,10 @@
 package com.starkbank.ellipticcurve;
 import com.starkbank.ellipticcurve.utils.ByteString;
 import com.starkbank.ellipticcurve.utils.Der;
+import com.starkbank.ellipticcurve.utils.DerReader;
+import com.starkbank.ellipticcurve.utils.DerWriter;
 import com.starkbank.ellipticcurve.utils.BinaryAscii;
+import java.math.BigInteger;
 import java.util.Arrays;
 import static com.starkbank.ellipticcurve.Curve.secp256k1;
 import static com.starkbank.ellipticcurve.Curve.supportedCurves;
@@ -9,6 +12,8 @@ import static com.starkbank.ellipticcurve.Curve.supportedCurves;
 
 public class PublicKey {
 
+    private static final long[] oidEcPublicKey = new long[]{1, 2, 840, 10045, 2, 1};
+
     public Point point;
     public Curve curve;
 
@@ -22,6 +27,32 @@ public class PublicKey {
         this.curve = curve;
     }
 
+    /**
+     *
+     * @param other other
+     * @return true if other is a PublicKey with the same point on the same curve
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof PublicKey)) {
+            return false;
+        }
+        PublicKey publicKey = (PublicKey) other;
+        return curve == publicKey.curve && point.x.equals(publicKey.point.x) && point.y.equals(publicKey.point.y);
+    }
+
+    /**
+     *
+     * @return int
+     */
+    @Override
+    public int hashCode() {
+        return 31 * point.x.hashCode() + point.y.hashCode();
+    }
+
     /**
      *
      * @return ByteString
@@ -36,13 +67,15 @@ public class PublicKey {
      * @return ByteString
      */
     public ByteString toByteString(boolean encoded) {
-        ByteString xStr = BinaryAscii.stringFromNumber(point.x, curve.length());
-        ByteString yStr = BinaryAscii.stringFromNumber(point.y, curve.length());
-        xStr.insert(yStr.getBytes());
-        if(encoded) {
-            xStr.insert(0, new byte[]{0, 4} );
+        int baselen = curve.length();
+        int prefix = encoded ? 2 : 0;
+        byte[] bytes = new byte[prefix + 2 * baselen];
+        if (encoded) {
+            bytes[1] = 4;
         }
-        return xStr;
+        BinaryAscii.writeNumber(point.x, bytes, prefix, baselen);
+        BinaryAscii.writeNumber(point.y, bytes, prefix + baselen, baselen);
+        return new ByteString(bytes);
     }
 
     /**
@@ -50,9 +83,39 @@ public class PublicKey {
      * @return ByteString
      */
     public ByteString toDer() {
-        long[] oidEcPublicKey = new long[]{1, 2, 840, 10045, 2, 1};
-        ByteString encodeEcAndOid = Der.encodeSequence(Der.encodeOid(oidEcPublicKey), Der.encodeOid(curve.oid));
-        return Der.encodeSequence(encodeEcAndOid, Der.encodeBitString(this.toByteString(true)));
+        int algorithmSize = DerWriter.objectSize(oidEcPublicKey) + DerWriter.objectSize(curve.oid);
+        int contentSize = DerWriter.headerSize(algorithmSize) + algorithmSize + bitStringSize();
+        byte[] der = new byte[DerWriter.headerSize(contentSize) + contentSize];
+        DerWriter writer = new DerWriter(der, 0);
+        writer.writeSequence(contentSize);
+        writer.writeSequence(algorithmSize);
+        writer.writeObject(oidEcPublicKey);
+        writer.writeObject(curve.oid);
+        writeBitString(writer);
+        return new ByteString(der);
+    }
+
+    /**
+     *
+     * @return number of bytes of the bit string holding the uncompressed point
+     */
+    int bitStringSize() {
+        int contentSize = 2 + 2 * curve.length();
+        return DerWriter.headerSize(contentSize) + contentSize;
+    }
+
+    /**
+     * Write the uncompressed point as a bit string: no unused bits, 0x04, then x and y at the curve length
+     *
+     * @param writer writer
+     */
+    void writeBitString(DerWriter writer) {
+        int baselen = curve.length();
+        writer.writeBitString(2 + 2 * baselen);
+        writer.writeByte(0);
+        writer.writeByte(4);
+        writer.writeUnsigned(point.x, baselen);
+        writer.writeUnsigned(point.y, baselen);
     }
 
     /**
@@ -78,36 +141,26 @@ public class PublicKey {
      * @return PublicKey
      */
     public static PublicKey fromDer(ByteString string) {
-        ByteString[] str = Der.removeSequence(string);
-        ByteString s1 = str[0];
-        ByteString empty = str[1];
-        if (!empty.isEmpty()) {
-            throw new RuntimeException (String.format("trailing junk after DER pubkey: %s", BinaryAscii.hexFromBinary(empty)));
-        }
-        str = Der.removeSequence(s1);
-        ByteString s2 = str[0];
-        ByteString pointStrBitstring = str[1];
-        Object[] o = Der.removeObject(s2);
-        ByteString rest = (ByteString) o[1];
-        o = Der.removeObject(rest);
-        long[] oidCurve = (long[]) o[0];
-        empty = (ByteString) o[1];
-        if (!empty.isEmpty()) {
-            throw new RuntimeException (String.format("trailing junk after DER pubkey objects: %s", BinaryAscii.hexFromBinary(empty)));
-        }
+        DerReader reader = new DerReader(string);
+        DerReader s1 = reader.readSequence();
+        reader.expectEmpty("DER pubkey");
+        DerReader s2 = s1.readSequence();
+        DerReader pointStrBitstring = s1.readBitString();
+        s1.expectEmpty("pubkey pointstring");
+        s2.readObject();
+        long[] oidCurve = s2.readObject();
+        s2.expectEmpty("DER pubkey objects");
 
         Curve curve = (Curve) Curve.curvesByOid.get(Arrays.hashCode(oidCurve));
         if (curve == null) {
             throw new RuntimeException(String.format("Unknown curve with oid %s. I only know about these: %s", Arrays.toString(oidCurve), Arrays.toString(supportedCurves.toArray())));
         }
 
-        str = Der.removeBitString(pointStrBitstring);
-        ByteString pointStr = str[0];
-        empty = str[1];
-        if (!empty.isEmpty()) {
-            throw new RuntimeException (String.format("trailing junk after pubkey pointstring: %s", BinaryAscii.hexFromBinary(empty)));
-        }
-        return PublicKey.fromString(pointStr.substring(2), curve);
+        int baselen = curve.length();
+        pointStrBitstring.skip(2);
+        BigInteger x = pointStrBitstring.readUnsigned(baselen);
+        BigInteger y = pointStrBitstring.readUnsigned(pointStrBitstring.remaining());
+        return fromPoint(new Point(x, y), curve, true);
     }
 
     /**
@@ -120,11 +173,16 @@ public class PublicKey {
     public static PublicKey fromString(ByteString string, Curve curve, boolean validatePoint) {
         int baselen = curve.length();
 
-        ByteString xs = string.substring(0, baselen);
-        ByteString ys = string.substring(baselen);
+        byte[] bytes = string.getBytes();
+        if (bytes.length < baselen) {
+            throw new RuntimeException(String.format("Public key string has %d bytes, expected at least %d", bytes.length, baselen));
+        }
 
-        Point p = new Point(BinaryAscii.numberFromString(xs.getBytes()), BinaryAscii.numberFromString(ys.getBytes()));
+        Point p = new Point(BinaryAscii.numberFromBytes(bytes, 0, baselen), BinaryAscii.numberFromBytes(bytes, baselen, bytes.length - baselen));
+        return fromPoint(p, curve, validatePoint);
+    }
 
+    private static PublicKey fromPoint(Point p, Curve curve, boolean validatePoint) {
         PublicKey publicKey = new PublicKey(p, curve);
         if (!validatePoint) {
             return publicKey;
@@ -135,7 +193,7 @@ public class PublicKey {
         if (!curve.contains(p)) {
             throw new RuntimeException(String.format("Point (%s,%s) is not valid for curve %s", p.x, p.y, curve.name));
         }
-        if (!Math.multiply(p, curve.N, curve.N, curve.A, curve.P).isAtInfinity()) {
+        if (!Math.multiply(p, curve.N, curve).isAtInfinity()) {
             throw new RuntimeException(String.format("Point (%s,%s) * %s.N is not at infinity", p.x, p.y, curve.name));
         }
         return publicKey;
@@ -0,0 +1,210 @@
+package com.starkbank.ellipticcurve;
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Bounded cache of precomputed multiple tables for public keys that are verified over and over.
+ * With a table in the cache, verification against that key skips building the odd multiples of
+ * the public point and uses a wider window, close to the speed of the generator side.
+ *
+ * Keys enter the cache explicitly with precompute or are promoted after a number of verifications.
+ * When the cache is full, the least recently used key is evicted to make room.
+ * Keys are matched by curve and point, so a key parsed again from the same PEM hits the same entry.
+ * The cache is safe to share between threads: lookups take no lock, only inserting a table does.
+ * It is only used by Ecdsa once installed with Ecdsa.setPublicKeyCache.
+ */
+public class PublicKeyCache {
+
+    /**
+     * Width of the non-adjacent form used with cached tables, the same as the generator's
+     */
+    static final int WINDOW = Math.GENERATOR_WNAF_WINDOW;
+
+    /**
+     * Number of use counts looked at to pick the one to drop when too many keys are being counted
+     */
+    private static final int SAMPLE = 8;
+
+    private final int capacity;
+    private final int promoteAfter;
+    private final ConcurrentHashMap<Key, Entry> tables = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Key, AtomicInteger> uses = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+
+    /**
+     *
+     * @param capacity Maximum number of public keys with a precomputed table
+     * @param promoteAfter Number of verifications after which a key gets its table, or 0 to only cache keys passed to precompute
+     */
+    public PublicKeyCache(int capacity, int promoteAfter) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (promoteAfter < 0) {
+            throw new IllegalArgumentException("promoteAfter must not be negative");
+        }
+        this.capacity = capacity;
+        this.promoteAfter = promoteAfter;
+    }
+
+    /**
+     * Build the table of a public key now, evicting the least recently used key if the cache is full
+     *
+     * @param publicKey publicKey
+     */
+    public void precompute(PublicKey publicKey) {
+        Key key = new Key(publicKey);
+        if (get(key) != null) {
+            return;
+        }
+        put(key, new PointTable(publicKey.curve, publicKey.point, WINDOW));
+    }
+
+    /**
+     *
+     * @return number of public keys with a precomputed table
+     */
+    public int size() {
+        return tables.size();
+    }
+
+    /**
+     * Drop every table and use count
+     */
+    public synchronized void clear() {
+        tables.clear();
+        uses.clear();
+    }
+
+    /**
+     * Table of a public key, counting one use and promoting the key once it is used often enough.
+     * Promotion evicts the least recently used key if the cache is full
+     *
+     * @param publicKey publicKey
+     * @return PointTable, or null if the key is not (yet) cached
+     */
+    PointTable table(PublicKey publicKey) {
+        Key key = new Key(publicKey);
+        PointTable table = get(key);
+        if (table != null || promoteAfter == 0) {
+            return table;
+        }
+        AtomicInteger count = uses.get(key);
+        if (count == null) {
+            if (uses.size() >= 16 * capacity) {
+                dropUse();
+            }
+            AtomicInteger previous = uses.putIfAbsent(key, count = new AtomicInteger());
+            if (previous != null) {
+                count = previous;
+            }
+        }
+        if (count.incrementAndGet() < promoteAfter || !uses.remove(key, count)) {
+            return null;
+        }
+        table = new PointTable(publicKey.curve, publicKey.point, WINDOW);
+        put(key, table);
+        return table;
+    }
+
+    /**
+     * Lock-free lookup. A hit stamps the entry with the current clock, which only moves when a table
+     * is inserted, so a key used over and over writes its entry once per insertion instead of every time
+     */
+    private PointTable get(Key key) {
+        Entry entry = tables.get(key);
+        if (entry == null) {
+            return null;
+        }
+        long now = clock.get();
+        if (entry.used != now) {
+            entry.used = now;
+        }
+        return entry.table;
+    }
+
+    /**
+     * Insert a table, evicting the entry with the oldest stamp if the cache is full. Entries are stamped
+     * with odd clock values on insertion and hits see the even value after it, so a key used since the
+     * last insertion is kept over keys inserted before it
+     */
+    private synchronized void put(Key key, PointTable table) {
+        if (!tables.containsKey(key)) {
+            while (tables.size() >= capacity) {
+                Key eldest = null;
+                long oldest = Long.MAX_VALUE;
+                for (Map.Entry<Key, Entry> candidate : tables.entrySet()) {
+                    if (candidate.getValue().used < oldest) {
+                        oldest = candidate.getValue().used;
+                        eldest = candidate.getKey();
+                    }
+                }
+                tables.remove(eldest);
+            }
+        }
+        tables.put(key, new Entry(table, clock.addAndGet(2) - 1));
+        uses.remove(key);
+    }
+
+    /**
+     * Drop the lowest of a few use counts, so keys seen once make room without resetting the hot ones
+     */
+    private void dropUse() {
+        Key lowest = null;
+        AtomicInteger lowestCount = null;
+        Iterator<Map.Entry<Key, AtomicInteger>> iterator = uses.entrySet().iterator();
+        for (int i = 0; i < SAMPLE && iterator.hasNext(); i++) {
+            Map.Entry<Key, AtomicInteger> candidate = iterator.next();
+            if (lowestCount == null || candidate.getValue().get() < lowestCount.get()) {
+                lowest = candidate.getKey();
+                lowestCount = candidate.getValue();
+            }
+        }
+        if (lowest != null) {
+            uses.remove(lowest, lowestCount);
+        }
+    }
+
+    private static final class Entry {
+
+        private final PointTable table;
+        private volatile long used;
+
+        private Entry(PointTable table, long used) {
+            this.table = table;
+            this.used = used;
+        }
+    }
+
+    private static final class Key {
+
+        private final Curve curve;
+        private final BigInteger x;
+        private final BigInteger y;
+
+        private Key(PublicKey publicKey) {
+            this.curve = publicKey.curve;
+            this.x = publicKey.point.x;
+            this.y = publicKey.point.y;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return curve == key.curve && x.equals(key.x) && y.equals(key.y);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * x.hashCode() + y.hashCode();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.starkbank.ellipticcurve;
+import java.math.BigInteger;
+
+
+/**
+ * Arithmetic modulo the secp256k1 prime P = 2^256 - 2^32 - 977 on ten 26-bit limbs.
+ *
+ * Products are reduced by folding: 2^260 = 0x1000003D10 (mod P) brings the high ten limbs of a
+ * product back onto the low ones, and 2^256 = 0x1000003D1 (mod P) clears the last 4 bits.
+ */
+final class Secp256k1Field extends Field {
+
+    static final BigInteger P = new BigInteger("fffffffffffffffffffffffffffffffffffffffffffffffffffffffefffffc2f", 16);
+
+    private static final int SIZE = 10;
+    private static final long TOP_MASK = (1L << 22) - 1;
+
+    private final long[] wide = new long[2 * SIZE];
+
+    Secp256k1Field() {
+        super(P, SIZE);
+    }
+
+    @Override
+    Field copy() {
+        return new Secp256k1Field();
+    }
+
+    @Override
+    void mul(long[] r, long[] a, long[] b) {
+        long carry = 0;
+        for (int k = 0; k < 2 * SIZE - 1; k++) {
+            long column = carry;
+            int start = k < SIZE ? 0 : k - SIZE + 1;
+            int end = k < SIZE ? k : SIZE - 1;
+            for (int i = start; i <= end; i++) {
+                column += a[i] * b[k - i];
+            }
+            wide[k] = column & LIMB_MASK;
+            carry = column >>> LIMB_BITS;
+        }
+        wide[2 * SIZE - 1] = carry;
+        reduce(r);
+    }
+
+    @Override
+    void sqr(long[] r, long[] a) {
+        long carry = 0;
+        for (int k = 0; k < 2 * SIZE - 1; k++) {
+            long column = 0;
+            int start = k < SIZE ? 0 : k - SIZE + 1;
+            int end = (k - 1) >> 1;
+            for (int i = start; i <= end; i++) {
+                column += a[i] * a[k - i];
+            }
+            column <<= 1;
+            if ((k & 1) == 0) {
+                column += a[k >> 1] * a[k >> 1];
+            }
+            column += carry;
+            wide[k] = column & LIMB_MASK;
+            carry = column >>> LIMB_BITS;
+        }
+        wide[2 * SIZE - 1] = carry;
+        reduce(r);
+    }
+
+    /**
+     * Reduce the 20-limb product held in wide into r
+     */
+    private void reduce(long[] r) {
+        long carry = 0;
+        for (int i = 0; i < SIZE; i++) {
+            long limb = wide[i] + wide[i + SIZE] * 0x3D10L + carry;
+            if (i > 0) {
+                limb += wide[i + SIZE - 1] * 0x400L;
+            }
+            r[i] = limb & LIMB_MASK;
+            carry = limb >>> LIMB_BITS;
+        }
+        long top = carry + wide[2 * SIZE - 1] * 0x400L;
+        r[0] += top * 0x3D10L;
+        r[1] += top * 0x400L;
+        normalize(r);
+    }
+
+    /**
+     * Bring limbs that may exceed 26 bits back to the canonical representation in [0, P)
+     */
+    private static void normalize(long[] r) {
+        long top;
+        do {
+            for (int i = 0; i < SIZE - 1; i++) {
+                r[i + 1] += r[i] >>> LIMB_BITS;
+                r[i] &= LIMB_MASK;
+            }
+            top = r[SIZE - 1] >>> 22;
+            r[SIZE - 1] &= TOP_MASK;
+            r[0] += top * 0x3D1L;
+            r[1] += top << 6;
+        } while (top != 0);
+        if (r[9] == TOP_MASK && r[8] == LIMB_MASK && r[7] == LIMB_MASK && r[6] == LIMB_MASK && r[5] == LIMB_MASK
+            && r[4] == LIMB_MASK && r[3] == LIMB_MASK && r[2] == LIMB_MASK
+            && (r[1] + 0x40L + ((r[0] + 0x3D1L) >>> LIMB_BITS)) >>> LIMB_BITS != 0) {
+            r[0] += 0x3D1L;
+            r[1] += 0x40L + (r[0] >>> LIMB_BITS);
+            r[0] &= LIMB_MASK;
+            r[1] &= LIMB_MASK;
+            for (int i = 2; i < SIZE - 1; i++) {
+                r[i] = 0;
+            }
+            r[SIZE - 1] = 0;
+        }
+    }
+}
@@ -1,16 +1,18 @@
 package com.starkbank.ellipticcurve;
 import com.starkbank.ellipticcurve.utils.Base64;
-import com.starkbank.ellipticcurve.utils.BinaryAscii;
 import com.starkbank.ellipticcurve.utils.ByteString;
-import com.starkbank.ellipticcurve.utils.Der;
+import com.starkbank.ellipticcurve.utils.DerReader;
+import com.starkbank.ellipticcurve.utils.DerWriter;
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 
 
 public class Signature {
 
     public BigInteger r;
     public BigInteger s;
+    public Integer recoveryId;
 
     /**
      *
@@ -18,8 +20,19 @@ public class Signature {
      * @param s s
      */
     public Signature(BigInteger r, BigInteger s) {
+        this(r, s, null);
+    }
+
+    /**
+     *
+     * @param r r
+     * @param s s
+     * @param recoveryId parity of the y coordinate of the nonce point R, plus 2 if its x coordinate is not below N, or null if unknown
+     */
+    public Signature(BigInteger r, BigInteger s, Integer recoveryId) {
         this.r = r;
         this.s = s;
+        this.recoveryId = recoveryId;
     }
 
     /**
@@ -27,7 +40,63 @@ public class Signature {
      * @return ByteString
      */
     public ByteString toDer() {
-        return Der.encodeSequence(Der.encodeInteger(r), Der.encodeInteger(s));
+        return toDer(false);
+    }
+
+    /**
+     *
+     * @param withRecoveryId prefix the DER sequence with one byte holding 27 + recoveryId
+     * @return ByteString
+     */
+    public ByteString toDer(boolean withRecoveryId) {
+        byte[] der = new byte[derSize(withRecoveryId)];
+        toDer(der, 0, withRecoveryId);
+        return new ByteString(der);
+    }
+
+    /**
+     *
+     * @param withRecoveryId count the leading recovery id byte
+     * @return number of bytes of the DER encoding
+     */
+    public int derSize(boolean withRecoveryId) {
+        int contentSize = DerWriter.integerSize(r) + DerWriter.integerSize(s);
+        return (withRecoveryId ? 1 : 0) + DerWriter.headerSize(contentSize) + contentSize;
+    }
+
+    /**
+     * Write the DER encoding into an array, which must have derSize(withRecoveryId) bytes from offset
+     *
+     * @param bytes array to write into
+     * @param offset index of the first byte to write
+     * @param withRecoveryId prefix the DER sequence with one byte holding 27 + recoveryId
+     * @return number of bytes written
+     */
+    public int toDer(byte[] bytes, int offset, boolean withRecoveryId) {
+        write(new DerWriter(bytes, offset), withRecoveryId);
+        return derSize(withRecoveryId);
+    }
+
+    /**
+     * Write the DER encoding at the position of the buffer, moving it past the written bytes
+     *
+     * @param buffer buffer
+     * @param withRecoveryId prefix the DER sequence with one byte holding 27 + recoveryId
+     */
+    public void toDer(ByteBuffer buffer, boolean withRecoveryId) {
+        write(new DerWriter(buffer), withRecoveryId);
+    }
+
+    private void write(DerWriter writer, boolean withRecoveryId) {
+        if (withRecoveryId) {
+            if (recoveryId == null) {
+                throw new IllegalStateException("Signature has no recovery id");
+            }
+            writer.writeByte(27 + recoveryId);
+        }
+        writer.writeSequence(DerWriter.integerSize(r) + DerWriter.integerSize(s));
+        writer.writeInteger(r);
+        writer.writeInteger(s);
     }
 
     /**
@@ -35,7 +104,18 @@ public class Signature {
      * @return String
      */
     public String toBase64() {
-        return Base64.encodeBytes(toDer().getBytes());
+        return toBase64(false);
+    }
+
+    /**
+     *
+     * @param withRecoveryId prefix the DER sequence with one byte holding 27 + recoveryId
+     * @return String
+     */
+    public String toBase64(boolean withRecoveryId) {
+        byte[] der = new byte[derSize(withRecoveryId)];
+        toDer(der, 0, withRecoveryId);
+        return Base64.encodeBytes(der);
     }
 
     /**
@@ -44,22 +124,47 @@ public class Signature {
      * @return Signature
      */
     public static Signature fromDer(ByteString string) {
-        ByteString[] str = Der.removeSequence(string);
-        ByteString rs = str[0];
-        ByteString empty = str[1];
-        if (!empty.isEmpty()) {
-            throw new RuntimeException(String.format("trailing junk after DER sig: %s", BinaryAscii.hexFromBinary(empty)));
-        }
-        Object[] o = Der.removeInteger(rs);
-        BigInteger r = new BigInteger(o[0].toString());
-        ByteString rest = (ByteString) o[1];
-        o = Der.removeInteger(rest);
-        BigInteger s = new BigInteger(o[0].toString());
-        empty = (ByteString) o[1];
-        if (!empty.isEmpty()) {
-            throw new RuntimeException(String.format("trailing junk after DER numbers: %s", BinaryAscii.hexFromBinary(empty)));
+        return fromDer(string, false);
+    }
+
+    /**
+     *
+     * @param string byteString
+     * @param recoveryByte true if the DER sequence is prefixed with one byte holding 27 + recoveryId
+     * @return Signature
+     */
+    public static Signature fromDer(ByteString string, boolean recoveryByte) {
+        return fromDer(new DerReader(string), recoveryByte);
+    }
+
+    /**
+     * Parse a signature from the bytes between the position and the limit of the buffer, without copying them
+     *
+     * @param buffer buffer, whose position is left untouched
+     * @param recoveryByte true if the DER sequence is prefixed with one byte holding 27 + recoveryId
+     * @return Signature
+     */
+    public static Signature fromDer(ByteBuffer buffer, boolean recoveryByte) {
+        return fromDer(new DerReader(buffer), recoveryByte);
+    }
+
+    private static Signature fromDer(DerReader reader, boolean recoveryByte) {
+        Integer recoveryId = null;
+        if (recoveryByte) {
+            if (reader.isEmpty()) {
+                throw new RuntimeException("missing recovery id byte before DER sig");
+            }
+            recoveryId = reader.readUnsigned(1).intValue() - 27;
+            if (recoveryId < 0 || recoveryId > 3) {
+                throw new RuntimeException(String.format("invalid recovery id byte: %d", recoveryId + 27));
+            }
         }
-        return new Signature(r, s);
+        DerReader rs = reader.readSequence();
+        reader.expectEmpty("DER sig");
+        BigInteger r = rs.readInteger();
+        BigInteger s = rs.readInteger();
+        rs.expectEmpty("DER numbers");
+        return new Signature(r, s, recoveryId);
     }
 
     /**
@@ -68,12 +173,22 @@ public class Signature {
      * @return Signature
      */
     public static Signature fromBase64(ByteString string) {
+        return fromBase64(string, false);
+    }
+
+    /**
+     *
+     * @param string byteString
+     * @param recoveryByte true if the DER sequence is prefixed with one byte holding 27 + recoveryId
+     * @return Signature
+     */
+    public static Signature fromBase64(ByteString string, boolean recoveryByte) {
         ByteString der = null;
         try {
             der = new ByteString(Base64.decode(string.getBytes()));
         } catch (IOException e) {
             throw new IllegalArgumentException("Corrupted base64 string! Could not decode base64 from it");
         }
-        return fromDer(der);
+        return fromDer(der, recoveryByte);
     }
 }
@@ -0,0 +1,24 @@
+package com.starkbank.ellipticcurve;
+
+
+/**
+ * A message with its signature and the public key it should be verified against, as used by Ecdsa.verifyBatch
+ */
+public class SignedMessage {
+
+    public String message;
+    public Signature signature;
+    public PublicKey publicKey;
+
+    /**
+     *
+     * @param message message
+     * @param signature signature
+     * @param publicKey publicKey
+     */
+    public SignedMessage(String message, Signature signature, PublicKey publicKey) {
+        this.message = message;
+        this.signature = signature;
+        this.publicKey = publicKey;
+    }
+}
@@ -0,0 +1,25 @@
+package com.starkbank.ellipticcurve;
+import java.security.MessageDigest;
+
+
+/**
+ * Message fed in pieces and signed by an EcdsaSigner, created with EcdsaSigner.stream
+ */
+public class SigningStream extends MessageStream {
+
+    private final EcdsaSigner signer;
+
+    SigningStream(EcdsaSigner signer, MessageDigest digest) {
+        super(digest);
+        this.signer = signer;
+    }
+
+    /**
+     * Sign everything fed so far and reset the stream
+     *
+     * @return Signature
+     */
+    public Signature sign() {
+        return signer.signHash(digest());
+    }
+}
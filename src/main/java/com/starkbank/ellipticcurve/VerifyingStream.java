@@ -0,0 +1,26 @@
+package com.starkbank.ellipticcurve;
+import java.security.MessageDigest;
+
+
+/**
+ * Message fed in pieces and verified by an EcdsaVerifier, created with EcdsaVerifier.stream
+ */
+public class VerifyingStream extends MessageStream {
+
+    private final EcdsaVerifier verifier;
+
+    VerifyingStream(EcdsaVerifier verifier, MessageDigest digest) {
+        super(digest);
+        this.verifier = verifier;
+    }
+
+    /**
+     * Verify the signature of everything fed so far and reset the stream
+     *
+     * @param signature signature
+     * @return boolean
+     */
+    public boolean verify(Signature signature) {
+        return verifier.verifyHash(digest(), signature);
+    }
+}
@@ -62,19 +62,64 @@ public final class BinaryAscii {
      * @return Number in hex from string
      */
     public static BigInteger numberFromString(byte[] string) {
-        return new BigInteger(BinaryAscii.hexFromBinary(string), 16);
+        return new BigInteger(1, string);
+    }
+
+    /**
+     * Read big-endian bytes as a non-negative integer
+     *
+     * @param bytes bytes
+     * @param offset index of the first byte
+     * @param length number of bytes
+     * @return BigInteger
+     */
+    public static BigInteger numberFromBytes(byte[] bytes, int offset, int length) {
+        if (offset == 0 && length == bytes.length) {
+            return new BigInteger(1, bytes);
+        }
+        return new BigInteger(1, Arrays.copyOfRange(bytes, offset, offset + length));
     }
 
     /**
      * Get a string representation of a number
      *
      * @param number number to be converted in a string
-     * @param length length max number of character for the string
-     * @return hexadecimal string
+     * @param length number of bytes of the string, left padded with zeros
+     * @return big-endian bytes of the number
      */
     public static ByteString stringFromNumber(BigInteger number, int length) {
-        String fmtStr = "%0" + String.valueOf(2 * length) + "x";
-        String hexString = String.format(fmtStr, number);
-        return new ByteString(BinaryAscii.binaryFromHex(hexString));
+        return new ByteString(bytesFromNumber(number, length));
+    }
+
+    /**
+     *
+     * @param number non-negative number
+     * @param length number of bytes, left padded with zeros
+     * @return big-endian bytes of the number, longer than length only if the number does not fit in it
+     */
+    public static byte[] bytesFromNumber(BigInteger number, int length) {
+        int size = (number.bitLength() + 7) / 8;
+        byte[] bytes = new byte[size > length ? size : length];
+        writeNumber(number, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    /**
+     * Write a non-negative number as exactly length big-endian bytes, left padded with zeros
+     *
+     * @param number number, lower than 2^(8*length)
+     * @param bytes array to write into
+     * @param offset index of the first byte to write
+     * @param length number of bytes
+     */
+    public static void writeNumber(BigInteger number, byte[] bytes, int offset, int length) {
+        if (number.signum() < 0 || number.bitLength() > 8 * length) {
+            throw new IllegalArgumentException(String.format("%s does not fit in %d bytes", number, length));
+        }
+        byte[] value = number.toByteArray();
+        int skip = value.length > length ? value.length - length : 0;
+        int padding = length - (value.length - skip);
+        Arrays.fill(bytes, offset, offset + padding, (byte) 0);
+        System.arraycopy(value, skip, bytes, offset + padding, value.length - skip);
     }
 }
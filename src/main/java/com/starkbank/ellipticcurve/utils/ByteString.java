@@ -67,6 +67,15 @@ public class ByteString {
         return Arrays.copyOf(bytes, bytes.length);
     }
 
+    /**
+     * Backing array, without the defensive copy of getBytes, for readers within this package
+     *
+     * @return byte[]
+     */
+    byte[] array() {
+        return bytes;
+    }
+
     /**
      *
      * @return int
@@ -0,0 +1,269 @@
+package com.starkbank.ellipticcurve.utils;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Cursor over DER encoded bytes. Each read moves the cursor past one element, and nested structures
+ * are returned as readers over a range of the same backing bytes, so parsing never copies the input.
+ * Only the bytes of each integer are copied once, since BigInteger has no constructor over a range.
+ *
+ * The backing array or buffer is not modified, and must not change while it is being read.
+ */
+public final class DerReader {
+
+    private final ByteBuffer buffer;
+    private int position;
+    private final int limit;
+
+    /**
+     *
+     * @param bytes bytes
+     */
+    public DerReader(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    /**
+     *
+     * @param bytes bytes
+     * @param offset index of the first byte to read
+     * @param length number of bytes to read
+     */
+    public DerReader(byte[] bytes, int offset, int length) {
+        this(ByteBuffer.wrap(bytes), offset, offset + length);
+    }
+
+    /**
+     *
+     * @param string string
+     */
+    public DerReader(ByteString string) {
+        this(string.array());
+    }
+
+    /**
+     * Read the bytes between the position and the limit of the buffer, whose position is left untouched
+     *
+     * @param buffer buffer
+     */
+    public DerReader(ByteBuffer buffer) {
+        this(buffer, buffer.position(), buffer.limit());
+    }
+
+    private DerReader(ByteBuffer buffer, int position, int limit) {
+        if (position < 0 || position > limit || limit > buffer.capacity()) {
+            throw new IndexOutOfBoundsException(String.format("invalid range [%d, %d) of %d bytes", position, limit, buffer.capacity()));
+        }
+        this.buffer = buffer;
+        this.position = position;
+        this.limit = limit;
+    }
+
+    /**
+     *
+     * @return number of bytes left to read
+     */
+    public int remaining() {
+        return limit - position;
+    }
+
+    /**
+     *
+     * @return true if every byte has been read
+     */
+    public boolean isEmpty() {
+        return position == limit;
+    }
+
+    /**
+     * Fail if there are bytes left to read
+     *
+     * @param what what was just read, for the error message
+     */
+    public void expectEmpty(String what) {
+        if (!isEmpty()) {
+            throw new RuntimeException(String.format("trailing junk after %s: %s", what, hex()));
+        }
+    }
+
+    /**
+     *
+     * @return content of the sequence
+     */
+    public DerReader readSequence() {
+        return readElement(0x30, "sequence");
+    }
+
+    /**
+     *
+     * @return content of the bit string, starting with its unused bits count
+     */
+    public DerReader readBitString() {
+        return readElement(0x03, "bitstring");
+    }
+
+    /**
+     *
+     * @return content of the octet string
+     */
+    public DerReader readOctetString() {
+        return readElement(0x04, "octetstring");
+    }
+
+    /**
+     *
+     * @param tag expected context specific tag, from 0 to 31
+     * @return content of the constructed element
+     */
+    public DerReader readConstructed(int tag) {
+        int s0 = peek();
+        if ((s0 & 0xe0) != 0xa0) {
+            throw new RuntimeException(String.format("wanted constructed tag (0xa0-0xbf), got 0x%02x", s0));
+        }
+        if ((s0 & 0x1f) != tag) {
+            throw new RuntimeException(String.format("expected tag %d in DER, got %d", tag, s0 & 0x1f));
+        }
+        return readElement(s0, "constructed");
+    }
+
+    /**
+     *
+     * @return value of the integer
+     */
+    public BigInteger readInteger() {
+        DerReader body = readElement(0x02, "integer");
+        return body.readUnsigned(body.remaining());
+    }
+
+    /**
+     *
+     * @return components of the object identifier
+     */
+    public long[] readObject() {
+        DerReader body = readElement(0x06, "object");
+        List<Long> numbers = new ArrayList<>();
+        while (!body.isEmpty()) {
+            numbers.add(body.readNumber());
+        }
+        if (numbers.isEmpty()) {
+            throw new RuntimeException("empty object identifier");
+        }
+        long n0 = numbers.get(0);
+        long[] oid = new long[numbers.size() + 1];
+        oid[0] = n0 / 40;
+        oid[1] = n0 - 40 * oid[0];
+        for (int i = 1; i < numbers.size(); i++) {
+            oid[i + 1] = numbers.get(i);
+        }
+        return oid;
+    }
+
+    /**
+     * Read raw big-endian bytes as a non-negative integer
+     *
+     * @param length number of bytes
+     * @return BigInteger
+     */
+    public BigInteger readUnsigned(int length) {
+        require(length);
+        BigInteger value;
+        if (buffer.hasArray()) {
+            value = BinaryAscii.numberFromBytes(buffer.array(), buffer.arrayOffset() + position, length);
+        } else {
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = buffer.get(position + i);
+            }
+            value = new BigInteger(1, bytes);
+        }
+        position += length;
+        return value;
+    }
+
+    /**
+     *
+     * @param count number of bytes to skip
+     */
+    public void skip(int count) {
+        require(count);
+        position += count;
+    }
+
+    /**
+     *
+     * @return hexadecimal representation of the bytes left to read
+     */
+    public String hex() {
+        StringBuilder hex = new StringBuilder();
+        for (int i = position; i < limit; i++) {
+            hex.append(String.format("%02x", buffer.get(i) & 0xff));
+        }
+        return hex.toString();
+    }
+
+    private DerReader readElement(int tag, String name) {
+        int n = peek();
+        if (n != tag) {
+            throw new RuntimeException(String.format("wanted %s (0x%02x), got 0x%02x", name, tag, n));
+        }
+        position++;
+        int length = readLength();
+        require(length);
+        DerReader body = new DerReader(buffer, position, position + length);
+        position += length;
+        return body;
+    }
+
+    private int readLength() {
+        int num = next();
+        if ((num & 0x80) == 0) {
+            return num;
+        }
+        int llen = num & 0x7f;
+        if (llen > remaining()) {
+            throw new RuntimeException("ran out of length bytes");
+        }
+        if (llen > 3) {
+            throw new RuntimeException(String.format("length of %d bytes is too long", llen));
+        }
+        int length = 0;
+        for (int i = 0; i < llen; i++) {
+            length = (length << 8) | next();
+        }
+        return length;
+    }
+
+    private long readNumber() {
+        long number = 0;
+        while (true) {
+            if (isEmpty()) {
+                throw new RuntimeException("ran out of length bytes");
+            }
+            int d = next();
+            number = (number << 7) | (d & 0x7f);
+            if ((d & 0x80) == 0) {
+                return number;
+            }
+        }
+    }
+
+    private int peek() {
+        require(1);
+        return buffer.get(position) & 0xff;
+    }
+
+    private int next() {
+        int value = peek();
+        position++;
+        return value;
+    }
+
+    private void require(int count) {
+        if (count < 0 || count > remaining()) {
+            throw new RuntimeException(String.format("DER element needs %d bytes, only %d left", count, remaining()));
+        }
+    }
+}
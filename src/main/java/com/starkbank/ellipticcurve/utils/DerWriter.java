@@ -0,0 +1,187 @@
+package com.starkbank.ellipticcurve.utils;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Writes DER elements front to back into a caller supplied array or buffer. Constructed elements only
+ * write their header, so the size of their content must be known up front: the static size methods
+ * give it without encoding anything, which lets the whole output be sized and written in a single pass.
+ */
+public final class DerWriter {
+
+    private final ByteBuffer buffer;
+
+    /**
+     *
+     * @param bytes array to write into
+     * @param offset index of the first byte to write
+     */
+    public DerWriter(byte[] bytes, int offset) {
+        this(ByteBuffer.wrap(bytes, offset, bytes.length - offset));
+    }
+
+    /**
+     * Write at the position of the buffer, moving it past every written byte
+     *
+     * @param buffer buffer
+     */
+    public DerWriter(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     *
+     * @param contentSize number of bytes of the content of an element
+     * @return number of bytes of the tag and length of the element
+     */
+    public static int headerSize(int contentSize) {
+        if (contentSize < 0x80) {
+            return 2;
+        }
+        int size = 2;
+        while ((contentSize >>>= 8) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     *
+     * @param value non-negative integer
+     * @return number of bytes of the integer element
+     */
+    public static int integerSize(BigInteger value) {
+        int contentSize = value.bitLength() / 8 + 1;
+        return headerSize(contentSize) + contentSize;
+    }
+
+    /**
+     *
+     * @param oid components of an object identifier
+     * @return number of bytes of the object element
+     */
+    public static int objectSize(long... oid) {
+        int contentSize = objectContentSize(oid);
+        return headerSize(contentSize) + contentSize;
+    }
+
+    /**
+     *
+     * @param contentSize number of bytes of the content of the sequence
+     */
+    public void writeSequence(int contentSize) {
+        writeHeader(0x30, contentSize);
+    }
+
+    /**
+     *
+     * @param contentSize number of bytes of the content of the bit string, including its unused bits count
+     */
+    public void writeBitString(int contentSize) {
+        writeHeader(0x03, contentSize);
+    }
+
+    /**
+     *
+     * @param contentSize number of bytes of the content of the octet string
+     */
+    public void writeOctetString(int contentSize) {
+        writeHeader(0x04, contentSize);
+    }
+
+    /**
+     *
+     * @param tag context specific tag, from 0 to 31
+     * @param contentSize number of bytes of the content of the constructed element
+     */
+    public void writeConstructed(int tag, int contentSize) {
+        writeHeader(0xa0 + tag, contentSize);
+    }
+
+    /**
+     *
+     * @param value non-negative integer
+     */
+    public void writeInteger(BigInteger value) {
+        int contentSize = value.bitLength() / 8 + 1;
+        writeHeader(0x02, contentSize);
+        writeUnsigned(value, contentSize);
+    }
+
+    /**
+     *
+     * @param oid components of the object identifier
+     */
+    public void writeObject(long... oid) {
+        writeHeader(0x06, objectContentSize(oid));
+        buffer.put((byte) (40 * oid[0] + oid[1]));
+        for (int i = 2; i < oid.length; i++) {
+            long n = oid[i];
+            int digits = numberSize(n);
+            for (int j = digits - 1; j > 0; j--) {
+                buffer.put((byte) (0x80 | ((n >>> (7 * j)) & 0x7f)));
+            }
+            buffer.put((byte) (n & 0x7f));
+        }
+    }
+
+    /**
+     * Write a non-negative integer as exactly length big-endian bytes, left padded with zeros
+     *
+     * @param value value, lower than 2^(8*length)
+     * @param length number of bytes
+     */
+    public void writeUnsigned(BigInteger value, int length) {
+        if (value.bitLength() > 8 * length) {
+            throw new IllegalArgumentException(String.format("%s does not fit in %d bytes", value, length));
+        }
+        if (buffer.hasArray()) {
+            if (buffer.remaining() < length) {
+                throw new BufferOverflowException();
+            }
+            BinaryAscii.writeNumber(value, buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            return;
+        }
+        buffer.put(BinaryAscii.bytesFromNumber(value, length));
+    }
+
+    /**
+     *
+     * @param value byte to write as is
+     */
+    public void writeByte(int value) {
+        buffer.put((byte) value);
+    }
+
+    private void writeHeader(int tag, int contentSize) {
+        buffer.put((byte) tag);
+        if (contentSize < 0x80) {
+            buffer.put((byte) contentSize);
+            return;
+        }
+        int lengthSize = headerSize(contentSize) - 1;
+        buffer.put((byte) (0x80 | (lengthSize - 1)));
+        for (int i = lengthSize - 2; i >= 0; i--) {
+            buffer.put((byte) (contentSize >>> (8 * i)));
+        }
+    }
+
+    private static int objectContentSize(long[] oid) {
+        int size = 1;
+        for (int i = 2; i < oid.length; i++) {
+            size += numberSize(oid[i]);
+        }
+        return size;
+    }
+
+    private static int numberSize(long n) {
+        int size = 1;
+        while ((n >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+}
@@ -1,19 +1,63 @@
 package com.starkbank.ellipticcurve.utils;
 import java.math.BigInteger;
-import java.security.SecureRandom;
-import java.util.Random;
 
 
 public class RandomInteger {
 
+    private static volatile RandomSource source = new ThreadLocalRandomSource();
+
     /**
+     * Replace the source of every random number drawn by this library, or restore the default with null
      *
-     * @param start start
-     * @param end end
+     * @param randomSource randomSource
+     */
+    public static void setSource(RandomSource randomSource) {
+        source = randomSource == null ? new ThreadLocalRandomSource() : randomSource;
+    }
+
+    /**
+     *
+     * @return RandomSource in use
+     */
+    public static RandomSource getSource() {
+        return source;
+    }
+
+    /**
+     * Uniformly distributed integer in [start, end)
+     *
+     * @param start start, inclusive
+     * @param end end, exclusive
      * @return BigInteger
      */
     public static BigInteger between(BigInteger start, BigInteger end) {
-        Random random = new SecureRandom();
-        return new BigInteger(end.toByteArray().length * 8 - 1, random).abs().add(start);
+        return between(start, end, source);
+    }
+
+    /**
+     * Uniformly distributed integer in [start, end), drawn by rejection sampling: random numbers of the
+     * bit length of end - start are drawn until one falls below it, which takes less than two draws on average
+     *
+     * @param start start, inclusive
+     * @param end end, exclusive
+     * @param randomSource randomSource
+     * @return BigInteger
+     */
+    public static BigInteger between(BigInteger start, BigInteger end, RandomSource randomSource) {
+        BigInteger range = end.subtract(start);
+        if (range.signum() <= 0) {
+            throw new IllegalArgumentException("end must be greater than start");
+        }
+        int bits = range.bitLength();
+        byte[] bytes = new byte[(bits + 7) / 8];
+        int mask = 0xff >>> (8 * bytes.length - bits);
+        while (true) {
+            randomSource.nextBytes(bytes);
+            bytes[0] &= mask;
+            BigInteger value = new BigInteger(1, bytes);
+            if (value.compareTo(range) < 0) {
+                return value.add(start);
+            }
+        }
     }
 }
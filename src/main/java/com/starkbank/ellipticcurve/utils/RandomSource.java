@@ -0,0 +1,17 @@
+package com.starkbank.ellipticcurve.utils;
+
+
+/**
+ * Source of the random bytes behind private keys and signature nonces. Install an implementation with
+ * RandomInteger.setSource, for instance to draw from a hardware module. Implementations are called
+ * from many threads at once and must be thread-safe.
+ */
+public interface RandomSource {
+
+    /**
+     * Fill the array with cryptographically secure random bytes
+     *
+     * @param bytes bytes
+     */
+    void nextBytes(byte[] bytes);
+}
@@ -0,0 +1,52 @@
+package com.starkbank.ellipticcurve.utils;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+
+/**
+ * Default RandomSource: each thread draws from its own SecureRandom, a DRBG where the platform has one,
+ * so threads never contend on a shared generator. After RESEED_INTERVAL draws a thread replaces its
+ * generator with a freshly seeded one.
+ */
+public final class ThreadLocalRandomSource implements RandomSource {
+
+    /**
+     * Number of draws a thread makes from its generator before seeding a new one
+     */
+    static final int RESEED_INTERVAL = 1 << 16;
+
+    private final ThreadLocal<Generator> generators = new ThreadLocal<Generator>() {
+        @Override
+        protected Generator initialValue() {
+            return new Generator();
+        }
+    };
+
+    @Override
+    public void nextBytes(byte[] bytes) {
+        generators.get().nextBytes(bytes);
+    }
+
+    private static final class Generator {
+
+        private SecureRandom random;
+        private int draws;
+
+        private void nextBytes(byte[] bytes) {
+            if (random == null || draws >= RESEED_INTERVAL) {
+                random = newSecureRandom();
+                draws = 0;
+            }
+            draws++;
+            random.nextBytes(bytes);
+        }
+    }
+
+    private static SecureRandom newSecureRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
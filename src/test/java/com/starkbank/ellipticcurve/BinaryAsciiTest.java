@@ -0,0 +1,41 @@
+package com.starkbank.ellipticcurve;
+import com.starkbank.ellipticcurve.utils.BinaryAscii;
+import org.junit.Test;
+import java.math.BigInteger;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+
+public class BinaryAsciiTest {
+
+    @Test
+    public void testNumberFromBytes() {
+        byte[] bytes = new byte[]{(byte) 0xff, 0x00, 0x01, (byte) 0x80, 0x7f};
+        assertEquals(new BigInteger("ff0001807f", 16), BinaryAscii.numberFromString(bytes));
+        assertEquals(new BigInteger("1807f", 16), BinaryAscii.numberFromBytes(bytes, 1, 4));
+        assertEquals(BigInteger.valueOf(0x80), BinaryAscii.numberFromBytes(bytes, 3, 1));
+        assertEquals(BigInteger.ZERO, BinaryAscii.numberFromBytes(bytes, 2, 0));
+    }
+
+    @Test
+    public void testStringFromNumber() {
+        assertArrayEquals(new byte[]{0, 0, 1, (byte) 0x80}, BinaryAscii.stringFromNumber(BigInteger.valueOf(0x180), 4).getBytes());
+        assertArrayEquals(new byte[]{(byte) 0xff, (byte) 0xff}, BinaryAscii.stringFromNumber(BigInteger.valueOf(0xffff), 2).getBytes());
+        assertArrayEquals(new byte[]{1, 0, 0}, BinaryAscii.bytesFromNumber(BigInteger.valueOf(0x10000), 2));
+
+        byte[] bytes = new byte[]{9, 9, 9, 9, 9};
+        BinaryAscii.writeNumber(BigInteger.valueOf(0x0102), bytes, 1, 3);
+        assertArrayEquals(new byte[]{9, 0, 1, 2, 9}, bytes);
+
+        for (int i = 0; i < 100; i++) {
+            PublicKey publicKey = new PrivateKey().publicKey();
+            assertEquals(publicKey, PublicKey.fromString(publicKey.toByteString()));
+            assertEquals(64, publicKey.toByteString().length());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNumberTooLong() {
+        BinaryAscii.writeNumber(BigInteger.valueOf(0x10000), new byte[4], 0, 2);
+    }
+}
@@ -1,10 +1,26 @@
 package com.starkbank.ellipticcurve;
+import com.starkbank.ellipticcurve.utils.ByteString;
 import org.junit.Test;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 
 public class EcdsaTest {
@@ -42,4 +58,278 @@ public class EcdsaTest {
 
         assertFalse(Ecdsa.verify(message, new Signature(BigInteger.ZERO, BigInteger.ZERO), publicKey));
     }
+
+    @Test
+    public void testPrime256v1() {
+        PrivateKey privateKey = new PrivateKey(Utils.prime256v1, new BigInteger("c9afa9d845ba75166b5c215767b1d6934e50c3db36e89b127b8a622b120f6721", 16));
+        PublicKey publicKey = PublicKey.fromString(privateKey.publicKey().toByteString(), Utils.prime256v1);
+
+        String message = "This is the right message";
+
+        Signature signature = Ecdsa.sign(message, privateKey);
+        assertTrue(Ecdsa.verify(message, signature, publicKey));
+        assertFalse(Ecdsa.verify("This is the wrong message", signature, publicKey));
+    }
+
+    @Test
+    public void testBytesAndBuffers() throws Exception {
+        PrivateKey privateKey = new PrivateKey();
+        PublicKey publicKey = privateKey.publicKey();
+        EcdsaSigner signer = new EcdsaSigner(privateKey);
+        EcdsaVerifier verifier = new EcdsaVerifier(publicKey);
+
+        String message = "This is the right message";
+        byte[] bytes = message.getBytes();
+        byte[] padded = ("xx" + message + "yyy").getBytes();
+        ByteBuffer direct = ByteBuffer.allocateDirect(padded.length);
+        direct.put(padded);
+        direct.position(2);
+        direct.limit(2 + bytes.length);
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+
+        Signature[] signatures = {
+            Ecdsa.sign(message, privateKey),
+            Ecdsa.sign(bytes, privateKey),
+            Ecdsa.sign(padded, 2, bytes.length, privateKey, MessageDigest.getInstance("SHA-256")),
+            Ecdsa.sign(direct, privateKey),
+            Ecdsa.signHash(hash, privateKey),
+            signer.sign(padded, 2, bytes.length),
+            signer.sign(direct),
+            signer.signHash(hash),
+        };
+        for (Signature signature : signatures) {
+            assertTrue(Ecdsa.verify(message, signature, publicKey));
+            assertTrue(Ecdsa.verify(bytes, signature, publicKey));
+            assertTrue(Ecdsa.verify(padded, 2, bytes.length, signature, publicKey, MessageDigest.getInstance("SHA-256")));
+            assertTrue(Ecdsa.verify(direct, signature, publicKey));
+            assertTrue(Ecdsa.verifyHash(hash, signature, publicKey));
+            assertTrue(verifier.verify(bytes, signature));
+            assertTrue(verifier.verify(padded, 2, bytes.length, signature));
+            assertTrue(verifier.verify(direct, signature));
+            assertTrue(verifier.verifyHash(hash, signature));
+            assertFalse(Ecdsa.verify(padded, signature, publicKey));
+        }
+        assertEquals(2, direct.position());
+    }
+
+    @Test
+    public void testDigestFactory() {
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger hashed = new AtomicInteger();
+        Ecdsa.setDigestFactory(new DigestFactory() {
+            @Override
+            public MessageDigest create(String algorithm) throws NoSuchAlgorithmException {
+                created.incrementAndGet();
+                final MessageDigest digest = MessageDigest.getInstance(algorithm);
+                return new MessageDigest(algorithm) {
+                    @Override
+                    protected void engineUpdate(byte input) {
+                        digest.update(input);
+                    }
+
+                    @Override
+                    protected void engineUpdate(byte[] input, int offset, int length) {
+                        digest.update(input, offset, length);
+                    }
+
+                    @Override
+                    protected byte[] engineDigest() {
+                        hashed.incrementAndGet();
+                        return digest.digest();
+                    }
+
+                    @Override
+                    protected void engineReset() {
+                        digest.reset();
+                    }
+                };
+            }
+        });
+        PrivateKey privateKey = new PrivateKey();
+        PublicKey publicKey = privateKey.publicKey();
+        try {
+            EcdsaSigner signer = new EcdsaSigner(privateKey, "SHA-512");
+            EcdsaVerifier verifier = new EcdsaVerifier(publicKey, "SHA-512");
+            for (int i = 0; i < 20; i++) {
+                String message = "This is message " + i;
+                assertTrue(Ecdsa.verify(message, Ecdsa.sign(message, privateKey), publicKey));
+                assertTrue(verifier.verify(message, signer.sign(message)));
+            }
+            assertTrue(created.get() > 0);
+            assertEquals(80, hashed.get());
+        } finally {
+            Ecdsa.setDigestFactory(null);
+        }
+        String message = "After the factory is restored";
+        assertTrue(Ecdsa.verify(message, Ecdsa.sign(message, privateKey), publicKey));
+        assertTrue(new EcdsaVerifier(publicKey, "SHA-512").verify(message, new EcdsaSigner(privateKey, "SHA-512").sign(message)));
+        assertEquals(80, hashed.get());
+    }
+
+    @Test
+    public void testRecoverPublicKey() {
+        Curve[] curves = {Curve.secp256k1, Utils.prime256v1};
+        for (Curve curve : curves) {
+            for (int i = 0; i < 10; i++) {
+                PrivateKey privateKey = new PrivateKey(curve, BigInteger.valueOf(1000 + i).pow(20).mod(curve.N));
+                PublicKey publicKey = privateKey.publicKey();
+                String message = "This is the right message " + i;
+
+                Signature signature = Ecdsa.sign(message, privateKey);
+                assertEquals(publicKey, Ecdsa.recoverPublicKey(message, signature, curve));
+
+                Signature parsed = Signature.fromBase64(new ByteString(signature.toBase64(true).getBytes()), true);
+                assertEquals(publicKey, Ecdsa.recoverPublicKey(message, parsed, curve));
+
+                PublicKey wrong = Ecdsa.recoverPublicKey("This is the wrong message", signature, curve);
+                assertFalse(publicKey.equals(wrong));
+                assertTrue(Ecdsa.verify("This is the wrong message", signature, wrong));
+            }
+        }
+    }
+
+    @Test
+    public void testSignerAndVerifier() {
+        PrivateKey privateKey = new PrivateKey();
+        PublicKey publicKey = privateKey.publicKey();
+        EcdsaSigner signer = new EcdsaSigner(privateKey);
+        EcdsaVerifier verifier = new EcdsaVerifier(publicKey);
+
+        String message = "This is the right message";
+
+        Signature signature = signer.sign(message);
+        assertTrue(verifier.verify(message, signature));
+        assertTrue(Ecdsa.verify(message, signature, publicKey));
+        assertTrue(verifier.verify(message, Ecdsa.sign(message, privateKey)));
+        assertFalse(verifier.verify("This is the wrong message", signature));
+        assertFalse(verifier.verify(message, new Signature(BigInteger.ZERO, BigInteger.ZERO)));
+    }
+
+    @Test
+    public void testDeterministicSigner() throws Exception {
+        PrivateKey privateKey = new PrivateKey(Utils.prime256v1, new BigInteger("c9afa9d845ba75166b5c215767b1d6934e50c3db36e89b127b8a622b120f6721", 16));
+        EcdsaSigner signer = new EcdsaSigner(privateKey, "SHA-256", true);
+
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest("sample".getBytes());
+        assertEquals(new BigInteger("a6e3c57dd01abe90086538398355dd4c3b17aa873382b0f24d6129493d8aad60", 16), DeterministicNonce.generate(privateKey, "SHA-256", hash));
+
+        Signature signature = signer.sign("sample");
+        assertEquals(new BigInteger("efd48b2aacb6a8fd1140dd9cd45e81d69d2c877b56aaf991c34d0ea84eaf3716", 16), signature.r);
+        assertEquals(new BigInteger("f7cb1c942d657c41d436c7a1b6e29f65f3e900dbb9aff4064dc4ab2f843acda8", 16), signature.s);
+        assertEquals(signature.s, signer.sign("sample").s);
+        assertTrue(Ecdsa.verify("sample", signature, privateKey.publicKey()));
+
+        PrivateKey one = new PrivateKey(Curve.secp256k1, BigInteger.ONE);
+        hash = MessageDigest.getInstance("SHA-256").digest("Satoshi Nakamoto".getBytes());
+        assertEquals(new BigInteger("8f8a276c19f4149656b280621e358cce24f5f52542772691ee69063b74f15d15", 16), DeterministicNonce.generate(one, "SHA-256", hash));
+    }
+
+    @Test
+    public void testDeterministicSignerWithOtherDigests() throws Exception {
+        // k and r are the RFC 6979 A.2.5 values; s differs because the whole digest is the message number, as everywhere in this library
+        PrivateKey privateKey = new PrivateKey(Utils.prime256v1, new BigInteger("c9afa9d845ba75166b5c215767b1d6934e50c3db36e89b127b8a622b120f6721", 16));
+
+        byte[] hash = MessageDigest.getInstance("SHA-384").digest("sample".getBytes());
+        assertEquals(new BigInteger("09f634b188cefd98e7ec88b1aa9852d734d0bc272f7d2a47decc6ebeb375aad4", 16), DeterministicNonce.generate(privateKey, "SHA-384", hash));
+        Signature signature = new EcdsaSigner(privateKey, "SHA-384", true).sign("sample");
+        assertEquals(new BigInteger("0eafea039b20e9b42309fb1d89e213057cbf973dc0cfc8f129edddc800ef7719", 16), signature.r);
+        assertTrue(new EcdsaVerifier(privateKey.publicKey(), "SHA-384").verify("sample", signature));
+
+        hash = MessageDigest.getInstance("SHA-512").digest("sample".getBytes());
+        assertEquals(new BigInteger("5fa81c63109badb88c1f367b47da606da28cad69aa22c4fe6ad7df73a7173aa5", 16), DeterministicNonce.generate(privateKey, "SHA-512", hash));
+        signature = new EcdsaSigner(privateKey, "SHA-512", true).sign("sample");
+        assertEquals(new BigInteger("8496a60b5e9b47c825488827e0495b0e3fa109ec4568fd3f8d1097678eb97f00", 16), signature.r);
+        assertTrue(new EcdsaVerifier(privateKey.publicKey(), "SHA-512").verify("sample", signature));
+
+        assertEquals(new BigInteger("a6e3c57dd01abe90086538398355dd4c3b17aa873382b0f24d6129493d8aad60", 16), DeterministicNonce.generate(privateKey, "SHA-256", MessageDigest.getInstance("SHA-256").digest("sample".getBytes())));
+        assertNotNull(new EcdsaSigner(privateKey, "MD2").sign("sample"));
+        try {
+            new EcdsaSigner(privateKey, "MD2", true);
+            fail("HmacMD2 should not be available");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("HmacMD2"));
+        }
+    }
+
+    @Test
+    public void testSharedSignerAndVerifier() throws Exception {
+        PrivateKey privateKey = new PrivateKey(Utils.prime256v1, new BigInteger("c9afa9d845ba75166b5c215767b1d6934e50c3db36e89b127b8a622b120f6721", 16));
+        final EcdsaSigner signer = new EcdsaSigner(privateKey);
+        final EcdsaVerifier verifier = new EcdsaVerifier(privateKey.publicKey());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                final String message = "This is message " + i;
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        Signature signature = signer.sign(message);
+                        return verifier.verify(message, signature) && !verifier.verify(message + "!", signature);
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testVerifyBatch() {
+        PrivateKey hotKey = new PrivateKey();
+        PrivateKey coldKey = new PrivateKey();
+        List<SignedMessage> items = new ArrayList<>();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 100; i++) {
+            PrivateKey privateKey = i % 10 == 0 ? coldKey : hotKey;
+            String message = "This is message " + i;
+            Signature signature = Ecdsa.sign(message, privateKey);
+            if (i % 7 == 3) {
+                message = message + "!";
+            } else {
+                expected.set(i);
+            }
+            items.add(new SignedMessage(message, signature, PublicKey.fromPem(privateKey.publicKey().toPem())));
+        }
+        assertEquals(expected, Ecdsa.verifyBatch(items));
+        assertEquals(expected, Ecdsa.verifyBatch(items, new ForkJoinPool(2)));
+        assertTrue(Ecdsa.verifyBatch(new ArrayList<SignedMessage>()).isEmpty());
+    }
+
+    @Test
+    public void testVerifyBatchRandomized() {
+        PrivateKey[] privateKeys = new PrivateKey[]{
+            new PrivateKey(),
+            new PrivateKey(),
+            new PrivateKey(Utils.prime256v1, new BigInteger("c9afa9d845ba75166b5c215767b1d6934e50c3db36e89b127b8a622b120f6721", 16)),
+        };
+        List<SignedMessage> items = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            PrivateKey privateKey = privateKeys[i % privateKeys.length];
+            String message = "This is message " + i;
+            items.add(new SignedMessage(message, Ecdsa.sign(message, privateKey), privateKey.publicKey()));
+        }
+        BitSet all = new BitSet();
+        all.set(0, items.size());
+        assertEquals(all, Ecdsa.verifyBatchRandomized(items));
+        assertTrue(Ecdsa.verifyAll(items));
+
+        Signature withoutRecoveryId = items.get(5).signature;
+        items.get(5).signature = new Signature(withoutRecoveryId.r, withoutRecoveryId.s);
+        Signature wrongRecoveryId = items.get(7).signature;
+        items.get(7).signature = new Signature(wrongRecoveryId.r, wrongRecoveryId.s, wrongRecoveryId.recoveryId ^ 1);
+        assertEquals(all, Ecdsa.verifyBatchRandomized(items));
+
+        items.get(11).message = "This is the wrong message";
+        items.get(42).signature = new Signature(BigInteger.ONE, BigInteger.ONE, 0);
+        BitSet expected = (BitSet) all.clone();
+        expected.clear(11);
+        expected.clear(42);
+        assertEquals(expected, Ecdsa.verifyBatchRandomized(items));
+        assertFalse(Ecdsa.verifyAll(items));
+    }
 }
@@ -0,0 +1,80 @@
+package com.starkbank.ellipticcurve;
+import com.starkbank.ellipticcurve.utils.RandomInteger;
+import org.junit.Test;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class FieldTest {
+
+    private static final BigInteger p256 = new BigInteger("ffffffff00000001000000000000000000000000ffffffffffffffffffffffff", 16);
+
+    @Test
+    public void testSecp256k1Field() {
+        Field field = Field.of(Curve.secp256k1.P);
+        assertEquals(Secp256k1Field.class, field.getClass());
+        checkAgainstBigInteger(field);
+    }
+
+    @Test
+    public void testPseudoMersenneField() {
+        BigInteger p25519 = BigInteger.ONE.shiftLeft(255).subtract(BigInteger.valueOf(19));
+        Field field = Field.of(p25519);
+        assertEquals(PseudoMersenneField.class, field.getClass());
+        checkAgainstBigInteger(field);
+        checkAgainstBigInteger(new PseudoMersenneField(Curve.secp256k1.P));
+    }
+
+    @Test
+    public void testMontgomeryField() {
+        Field field = Field.of(p256);
+        assertEquals(MontgomeryField.class, field.getClass());
+        checkAgainstBigInteger(field);
+        checkAgainstBigInteger(field.copy());
+        BigInteger brainpoolP256 = new BigInteger("a9fb57dba1eea9bc3e660a909d838d726e3bf623d52620282013481d1f6e5377", 16);
+        checkAgainstBigInteger(Field.of(brainpoolP256));
+    }
+
+    private static void checkAgainstBigInteger(Field field) {
+        BigInteger P = field.P;
+        List<BigInteger> values = new ArrayList<>();
+        values.add(BigInteger.ZERO);
+        values.add(BigInteger.ONE);
+        values.add(BigInteger.valueOf(2));
+        values.add(P.subtract(BigInteger.ONE));
+        values.add(P.subtract(BigInteger.valueOf(2)));
+        values.add(BigInteger.ONE.shiftLeft(255).mod(P));
+        for (int i = 0; i < 20; i++) {
+            values.add(RandomInteger.between(BigInteger.ZERO, P).mod(P));
+        }
+
+        long[] r = field.element();
+        for (BigInteger a : values) {
+            long[] x = field.element(a);
+            assertEquals(a, field.toBigInteger(x));
+            field.sqr(r, x);
+            assertEquals(a.multiply(a).mod(P), field.toBigInteger(r));
+            field.neg(r, x);
+            assertEquals(a.negate().mod(P), field.toBigInteger(r));
+            field.sqr(r, x);
+            assertTrue(field.sqrt(r, r));
+            assertEquals(a.multiply(a).mod(P), field.toBigInteger(r).pow(2).mod(P));
+            if (a.signum() != 0) {
+                field.inv(r, x);
+                assertEquals(a.modInverse(P), field.toBigInteger(r));
+            }
+            for (BigInteger b : values) {
+                long[] y = field.element(b);
+                field.add(r, x, y);
+                assertEquals(a.add(b).mod(P), field.toBigInteger(r));
+                field.sub(r, x, y);
+                assertEquals(a.subtract(b).mod(P), field.toBigInteger(r));
+                field.mul(r, x, y);
+                assertEquals(a.multiply(b).mod(P), field.toBigInteger(r));
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.starkbank.ellipticcurve;
+import com.starkbank.ellipticcurve.utils.RandomInteger;
+import java.math.BigInteger;
+
+
+/**
+ * Compares Math.inv and Field.inv against the Extended Euclidean Algorithm Math.inv used before.
+ * Not a unit test: run it with
+ *
+ *     mvn test-compile
+ *     java -cp target/classes:target/test-classes com.starkbank.ellipticcurve.InversionBenchmark
+ */
+public class InversionBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final int COUNT = 20000;
+
+    public static void main(String[] args) {
+        Curve curve = Curve.secp256k1;
+        BigInteger[] values = new BigInteger[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            values[i] = RandomInteger.between(BigInteger.ONE, curve.N).mod(curve.N);
+        }
+        Field field = curve.field.copy();
+        long[][] elements = new long[COUNT][];
+        for (int i = 0; i < COUNT; i++) {
+            elements[i] = field.element(values[i]);
+        }
+        long[] r = field.element();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            BigInteger check = BigInteger.ZERO;
+            long start = System.nanoTime();
+            for (BigInteger x : values) {
+                check = check.xor(euclideanInverse(x, curve.N));
+            }
+            long euclid = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (BigInteger x : values) {
+                check = check.xor(Math.inv(x, curve.N));
+            }
+            long inv = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (long[] x : elements) {
+                field.inv(r, x);
+            }
+            long fieldInv = System.nanoTime() - start;
+
+            System.out.println(String.format(
+                "round %d: euclid %.2fus, Math.inv %.2fus, Field.inv %.2fus (%d)",
+                round,
+                euclid / 1000.0 / COUNT,
+                inv / 1000.0 / COUNT,
+                fieldInv / 1000.0 / COUNT,
+                check.bitCount() + r[0]
+            ));
+        }
+    }
+
+    /**
+     * Math.inv before it used BigInteger.modInverse, kept as the baseline
+     */
+    private static BigInteger euclideanInverse(BigInteger x, BigInteger n) {
+        BigInteger lm = BigInteger.ONE;
+        BigInteger hm = BigInteger.ZERO;
+        BigInteger high = n;
+        BigInteger low = x.mod(n);
+        BigInteger r, nm, nw;
+        while (low.compareTo(BigInteger.ONE) > 0) {
+            r = high.divide(low);
+            nm = hm.subtract(lm.multiply(r));
+            nw = high.subtract(low.multiply(r));
+            high = low;
+            hm = lm;
+            low = nw;
+            lm = nm;
+        }
+        return lm.mod(n);
+    }
+}
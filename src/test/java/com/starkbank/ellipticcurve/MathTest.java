@@ -0,0 +1,271 @@
+package com.starkbank.ellipticcurve;
+import com.starkbank.ellipticcurve.utils.RandomInteger;
+import org.junit.Test;
+import java.math.BigInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class MathTest {
+
+    private static final Curve curve = Curve.secp256k1;
+
+    @Test
+    public void testInv() {
+        BigInteger[] moduli = new BigInteger[]{curve.N, curve.P, Utils.prime256v1.N, BigInteger.valueOf(1000)};
+        for (BigInteger n : moduli) {
+            for (int i = 0; i < 20; i++) {
+                BigInteger x = RandomInteger.between(BigInteger.ONE, n).mod(n);
+                if (!x.gcd(n).equals(BigInteger.ONE)) {
+                    continue;
+                }
+                assertEquals(x.modInverse(n), Math.inv(x, n));
+            }
+            assertEquals(BigInteger.ONE, Math.inv(BigInteger.ONE, n));
+            assertEquals(n.subtract(BigInteger.ONE), Math.inv(n.subtract(BigInteger.ONE), n));
+            assertEquals(n.subtract(BigInteger.ONE).modInverse(n), Math.inv(BigInteger.ONE.negate(), n));
+        }
+        assertEquals(BigInteger.ZERO, Math.inv(BigInteger.ZERO, curve.N));
+        assertEquals(BigInteger.ONE, Math.inv(curve.N, curve.N));
+        assertEquals(BigInteger.valueOf(750), Math.inv(BigInteger.valueOf(4), BigInteger.valueOf(1000)));
+    }
+
+    @Test
+    public void testMultiplyGenerator() {
+        BigInteger[] scalars = new BigInteger[]{
+            BigInteger.ONE,
+            BigInteger.valueOf(2),
+            BigInteger.valueOf(15),
+            BigInteger.valueOf(16),
+            curve.N.subtract(BigInteger.ONE),
+            curve.N.add(BigInteger.TEN),
+            RandomInteger.between(BigInteger.ONE, curve.N),
+            RandomInteger.between(BigInteger.ONE, curve.N),
+        };
+        for (BigInteger n : scalars) {
+            Point expected = Math.multiply(curve.G, n, curve.N, curve.A, curve.P);
+            Point actual = Math.multiplyGenerator(curve, n);
+            assertEquals(expected.x, actual.x);
+            assertEquals(expected.y, actual.y);
+        }
+    }
+
+    @Test
+    public void testMultiplyGeneratorByOrder() {
+        assertTrue(Math.multiplyGenerator(curve, BigInteger.ZERO).isAtInfinity());
+        assertTrue(Math.multiplyGenerator(curve, curve.N).isAtInfinity());
+    }
+
+    @Test
+    public void testMultiplyArbitraryPoint() {
+        for (int i = 0; i < 10; i++) {
+            BigInteger k1 = RandomInteger.between(BigInteger.ONE, curve.N);
+            BigInteger k2 = RandomInteger.between(BigInteger.ONE, curve.N);
+            Point q = Math.multiplyGenerator(curve, k1);
+            Point expected = Math.multiplyGenerator(curve, k1.multiply(k2));
+            Point actual = Math.multiply(q, k2, curve.N, curve.A, curve.P);
+            assertEquals(expected.x, actual.x);
+            assertEquals(expected.y, actual.y);
+        }
+    }
+
+    @Test
+    public void testFromJacobianBatch() {
+        Point[] points = new Point[6];
+        for (int i = 0; i < points.length; i++) {
+            BigInteger n = RandomInteger.between(BigInteger.ONE, curve.N);
+            points[i] = Math.jacobianMultiply(Math.toJacobian(curve.G), n, curve.N, curve.A, curve.P);
+        }
+        points[3] = Math.jacobianMultiply(Math.toJacobian(curve.G), curve.N, curve.N, curve.A, curve.P);
+        Point[] affine = Math.fromJacobianBatch(points, curve.P);
+        for (int i = 0; i < points.length; i++) {
+            Point expected = Math.fromJacobian(points[i], curve.P);
+            assertEquals(expected.x, affine[i].x);
+            assertEquals(expected.y, affine[i].y);
+        }
+        assertTrue(affine[3].isAtInfinity());
+    }
+
+    @Test
+    public void testMixedAddition() {
+        BigInteger k = RandomInteger.between(BigInteger.ONE, curve.N);
+        Point p = Math.jacobianMultiply(Math.toJacobian(curve.G), k, curve.N, curve.A, curve.P);
+        Point[] addends = new Point[]{
+            Math.multiplyGenerator(curve, RandomInteger.between(BigInteger.ONE, curve.N)),
+            Math.fromJacobian(p, curve.P),
+            Math.multiplyGenerator(curve, curve.N.subtract(k)),
+        };
+        for (Point q : addends) {
+            BigInteger z = RandomInteger.between(BigInteger.valueOf(2), curve.P).mod(curve.P);
+            Point projective = new Point(
+                q.x.multiply(z.pow(2)).mod(curve.P),
+                q.y.multiply(z.pow(3)).mod(curve.P),
+                z
+            );
+            Point mixed = Math.fromJacobian(Math.jacobianAdd(p, Math.toJacobian(q), curve.A, curve.P), curve.P);
+            Point general = Math.fromJacobian(Math.jacobianAdd(p, projective, curve.A, curve.P), curve.P);
+            Point swapped = Math.fromJacobian(Math.jacobianAdd(Math.toJacobian(q), p, curve.A, curve.P), curve.P);
+            assertEquals(general.x, mixed.x);
+            assertEquals(general.y, mixed.y);
+            assertEquals(general.x, swapped.x);
+            assertEquals(general.y, swapped.y);
+        }
+    }
+
+    @Test
+    public void testDoublingFormulas() {
+        Curve brainpoolP256r1 = new Curve(
+            new BigInteger("7d5a0975fc2c3057eef67530417affe7fb8055c126dc5c6ce94a4b44f330b5d9", 16),
+            new BigInteger("26dc5c6ce94a4b44f330b5d9bbd77cbf958416295cf7e1ce6bccdc18ff8c07b6", 16),
+            new BigInteger("a9fb57dba1eea9bc3e660a909d838d726e3bf623d52620282013481d1f6e5377", 16),
+            new BigInteger("a9fb57dba1eea9bc3e660a909d838d718c397aa3b561a6f7901e0e82974856a7", 16),
+            new BigInteger("8bd2aeb9cb7e57cb2c4b482ffc81b7afb9de27e1e3bd23c23a4453bd9ace3262", 16),
+            new BigInteger("547ef835c3dac4fd97f8461a14611dc9c27745132ded8e545c1d54c72f046997", 16),
+            "brainpoolP256r1",
+            new long[]{1, 3, 36, 3, 3, 2, 8, 1, 1, 7}
+        );
+        Curve[] curves = new Curve[]{curve, Utils.prime256v1, brainpoolP256r1};
+        int[] shapes = new int[]{JacobianArithmetic.A_ZERO, JacobianArithmetic.A_MINUS_THREE, JacobianArithmetic.A_GENERIC};
+        for (int i = 0; i < curves.length; i++) {
+            Curve c = curves[i];
+            assertEquals(shapes[i], new JacobianArithmetic(c).shape);
+            assertTrue(c.contains(c.G));
+            BigInteger k = RandomInteger.between(BigInteger.ONE, c.N);
+            Point q = Math.multiplyGenerator(c, k);
+            Point doubled = Math.fromJacobian(Math.jacobianDouble(Math.toJacobian(q), c.A, c.P), c.P);
+            Point expected = Math.multiplyGenerator(c, k.shiftLeft(1));
+            assertTrue(c.contains(doubled));
+            assertEquals(expected.x, doubled.x);
+            assertEquals(expected.y, doubled.y);
+            Point product = Math.multiply(q, k, c);
+            assertEquals(Math.multiplyGenerator(c, k.multiply(k)).x, product.x);
+        }
+    }
+
+    @Test
+    public void testMultiplyMany() {
+        int[] sizes = new int[]{1, 3, 40};
+        for (int size : sizes) {
+            Point[] points = new Point[size];
+            BigInteger[] scalars = new BigInteger[size];
+            BigInteger total = BigInteger.ZERO;
+            for (int i = 0; i < size; i++) {
+                BigInteger k = RandomInteger.between(BigInteger.ONE, curve.N);
+                points[i] = Math.multiplyGenerator(curve, k);
+                scalars[i] = RandomInteger.between(BigInteger.ONE, curve.N);
+                total = total.add(k.multiply(scalars[i]));
+            }
+            Point expected = Math.multiplyGenerator(curve, total);
+            Point actual = Math.multiplyMany(points, scalars, curve);
+            assertEquals(expected.x, actual.x);
+            assertEquals(expected.y, actual.y);
+        }
+        Point q = Math.multiplyGenerator(curve, BigInteger.TEN);
+        Point sum = Math.multiplyMany(new Point[]{q, q}, new BigInteger[]{BigInteger.ONE, curve.N.subtract(BigInteger.ONE)}, curve);
+        assertTrue(sum.isAtInfinity());
+    }
+
+    @Test
+    public void testNormalizedOddMultiples() {
+        JacobianArithmetic arithmetic = new JacobianArithmetic(curve);
+        BigInteger k = RandomInteger.between(BigInteger.ONE, curve.N);
+        JacobianPoint[] table = Math.oddMultiples(arithmetic, arithmetic.fromAffine(Math.multiplyGenerator(curve, k)), Math.WNAF_WINDOW);
+        arithmetic.normalize(table);
+        JacobianPoint[] image = Math.endomorphism(arithmetic, table, curve.beta);
+        for (int i = 0; i < table.length; i++) {
+            Point expected = Math.multiplyGenerator(curve, k.multiply(BigInteger.valueOf(2 * i + 1)));
+            assertTrue(table[i].affine);
+            assertTrue(image[i].affine);
+            assertEquals(BigInteger.ONE, arithmetic.toJacobian(image[i]).z);
+            assertEquals(expected.x, arithmetic.toAffine(table[i]).x);
+            assertEquals(expected.x.multiply(curve.beta).mod(curve.P), arithmetic.toAffine(image[i]).x);
+            assertEquals(expected.y, arithmetic.toAffine(image[i]).y);
+        }
+    }
+
+    @Test
+    public void testWnaf() {
+        for (int i = 0; i < 100; i++) {
+            BigInteger n = RandomInteger.between(BigInteger.ONE, curve.N);
+            int[] naf = Math.wnaf(n, Math.WNAF_WINDOW);
+            BigInteger sum = BigInteger.ZERO;
+            for (int j = naf.length - 1; j >= 0; j--) {
+                sum = sum.shiftLeft(1).add(BigInteger.valueOf(naf[j]));
+            }
+            assertEquals(n, sum);
+        }
+    }
+
+    @Test
+    public void testMultiplyAndAdd() {
+        for (int i = 0; i < 10; i++) {
+            BigInteger k = RandomInteger.between(BigInteger.ONE, curve.N);
+            BigInteger n = RandomInteger.between(BigInteger.ONE, curve.N);
+            BigInteger m = RandomInteger.between(BigInteger.ONE, curve.N);
+            Point q = Math.multiplyGenerator(curve, k);
+            Point expected = Math.multiplyGenerator(curve, n.add(m.multiply(k)));
+            Point joint = Math.multiplyAndAdd(curve.G, n, q, m, curve.N, curve.A, curve.P);
+            Point generatorJoint = Math.multiplyGeneratorAndAdd(curve, n, q, m);
+            assertEquals(expected.x, joint.x);
+            assertEquals(expected.y, joint.y);
+            assertEquals(expected.x, generatorJoint.x);
+            assertEquals(expected.y, generatorJoint.y);
+        }
+    }
+
+    @Test
+    public void testMultiplyAndAddToInfinity() {
+        BigInteger n = RandomInteger.between(BigInteger.ONE, curve.N);
+        Point q = Math.multiplyGenerator(curve, n);
+        assertTrue(Math.multiplyGeneratorAndAdd(curve, curve.N.subtract(n), q, BigInteger.ONE).isAtInfinity());
+    }
+
+    @Test
+    public void testEndomorphism() {
+        Point lambdaG = Math.multiplyGenerator(curve, curve.lambda);
+        assertEquals(curve.G.x.multiply(curve.beta).mod(curve.P), lambdaG.x);
+        assertEquals(curve.G.y, lambdaG.y);
+    }
+
+    @Test
+    public void testSplitScalar() {
+        for (int i = 0; i < 100; i++) {
+            BigInteger k = RandomInteger.between(BigInteger.ONE, curve.N).mod(curve.N);
+            BigInteger[] halves = curve.splitScalar(k);
+            assertEquals(k, halves[0].add(halves[1].multiply(curve.lambda)).mod(curve.N));
+            assertTrue(halves[0].bitLength() <= 129);
+            assertTrue(halves[1].bitLength() <= 129);
+        }
+    }
+
+    @Test
+    public void testMultiplyWithEndomorphism() {
+        for (int i = 0; i < 10; i++) {
+            BigInteger k = RandomInteger.between(BigInteger.ONE, curve.N);
+            BigInteger n = RandomInteger.between(BigInteger.ONE, curve.N);
+            Point q = Math.multiplyGenerator(curve, k);
+            Point expected = Math.multiply(q, n, curve.N, curve.A, curve.P);
+            Point actual = Math.multiply(q, n, curve);
+            assertEquals(expected.x, actual.x);
+            assertEquals(expected.y, actual.y);
+        }
+        assertTrue(Math.multiply(curve.G, curve.N, curve).isAtInfinity());
+    }
+
+    @Test
+    public void testGenericField() {
+        Curve p256 = Utils.prime256v1;
+        Point doubled = Math.multiplyGenerator(p256, BigInteger.valueOf(2));
+        assertEquals(new BigInteger("7cf27b188d034f7e8a52380304b51ac3c08969e277f21b35a60b48fc47669978", 16), doubled.x);
+        assertEquals(new BigInteger("07775510db8ed040293d9ac69f7430dbba7dade63ce982299e04b79d227873d1", 16), doubled.y);
+
+        BigInteger k = RandomInteger.between(BigInteger.ONE, p256.N);
+        BigInteger n = RandomInteger.between(BigInteger.ONE, p256.N);
+        Point q = Math.multiplyGenerator(p256, k);
+        Point expected = Math.multiplyGenerator(p256, k.multiply(n));
+        Point actual = Math.multiply(q, n, p256);
+        assertEquals(expected.x, actual.x);
+        assertEquals(expected.y, actual.y);
+        assertTrue(p256.contains(actual));
+    }
+}
@@ -0,0 +1,99 @@
+package com.starkbank.ellipticcurve;
+import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class MessageStreamTest {
+
+    private static byte[] payload() {
+        byte[] payload = new byte[150000];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (i * 31 + i / 7);
+        }
+        return payload;
+    }
+
+    @Test
+    public void testChunks() throws Exception {
+        PrivateKey privateKey = new PrivateKey();
+        EcdsaSigner signer = new EcdsaSigner(privateKey);
+        EcdsaVerifier verifier = new EcdsaVerifier(privateKey.publicKey());
+        byte[] payload = payload();
+
+        SigningStream signing = signer.stream();
+        signing.update(payload, 0, 1000);
+        signing.update(ByteBuffer.wrap(payload, 1000, 50000));
+        signing.update(new ByteArrayInputStream(payload, 51000, 49000));
+        signing.update(Channels.newChannel(new ByteArrayInputStream(payload, 100000, 50000)));
+        Signature signature = signing.sign();
+        assertTrue(verifier.verify(payload, signature));
+
+        VerifyingStream verifying = verifier.stream();
+        verifying.update(payload);
+        assertTrue(verifying.verify(signature));
+        verifying.update(payload, 1, payload.length - 1);
+        assertFalse(verifying.verify(signature));
+
+        signing.update(payload);
+        assertTrue(verifier.verify(payload, signing.sign()));
+    }
+
+    @Test
+    public void testFile() throws Exception {
+        PrivateKey privateKey = new PrivateKey();
+        EcdsaSigner signer = new EcdsaSigner(privateKey);
+        EcdsaVerifier verifier = new EcdsaVerifier(privateKey.publicKey());
+        byte[] payload = payload();
+        Path path = Files.createTempFile("ecdsa", ".bin");
+        try {
+            Files.write(path, payload);
+
+            SigningStream signing = signer.stream();
+            signing.update(path);
+            Signature signature = signing.sign();
+            assertTrue(verifier.verify(payload, signature));
+
+            VerifyingStream verifying = verifier.stream();
+            verifying.update(path);
+            assertTrue(verifying.verify(signature));
+
+            try (InputStream input = Files.newInputStream(path)) {
+                verifying.update(input);
+            }
+            assertTrue(verifying.verify(signature));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testFileChunkBoundaries() throws Exception {
+        PrivateKey privateKey = new PrivateKey();
+        EcdsaSigner signer = new EcdsaSigner(privateKey);
+        EcdsaVerifier verifier = new EcdsaVerifier(privateKey.publicKey());
+        int[] sizes = new int[]{0, MessageStream.CHUNK - 1, MessageStream.CHUNK, 3 * MessageStream.CHUNK + 17};
+        SigningStream signing = signer.stream();
+        for (int size : sizes) {
+            byte[] payload = new byte[size];
+            for (int i = 0; i < size; i++) {
+                payload[i] = (byte) (i * 131 + i / 251);
+            }
+            Path path = Files.createTempFile("ecdsa", ".bin");
+            try {
+                Files.write(path, payload);
+                signing.update(path);
+                assertTrue(verifier.verify(payload, signing.sign()));
+            } finally {
+                Files.delete(path);
+            }
+            assertFalse(Files.exists(path));
+        }
+    }
+}
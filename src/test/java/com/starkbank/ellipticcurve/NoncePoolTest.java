@@ -0,0 +1,90 @@
+package com.starkbank.ellipticcurve;
+import com.starkbank.ellipticcurve.utils.RandomInteger;
+import com.starkbank.ellipticcurve.utils.RandomSource;
+import org.junit.Test;
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+public class NoncePoolTest {
+
+    @Test
+    public void testFill() throws InterruptedException {
+        NoncePool pool = new NoncePool(Curve.secp256k1, 8, 2);
+        try {
+            for (int i = 0; i < 200 && pool.size() < 8; i++) {
+                Thread.sleep(50);
+            }
+            assertEquals(8, pool.size());
+            Thread.sleep(100);
+            assertEquals(8, pool.size());
+            assertNull(pool.failure());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSign() {
+        PrivateKey privateKey = new PrivateKey();
+        PublicKey publicKey = privateKey.publicKey();
+        NoncePool pool = new NoncePool(Curve.secp256k1, 4, 1);
+        try {
+            EcdsaSigner signer = new EcdsaSigner(privateKey, "SHA-256", pool);
+            Set<BigInteger> rs = new HashSet<>();
+            for (int i = 0; i < 50; i++) {
+                String message = "This is message " + i;
+                Signature signature = signer.sign(message);
+                assertTrue(Ecdsa.verify(message, signature, publicKey));
+                assertTrue(rs.add(signature.r));
+            }
+            pool.shutdown();
+            assertTrue(Ecdsa.verify("After shutdown", signer.sign("After shutdown"), publicKey));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testProducerFailure() throws InterruptedException {
+        final IllegalStateException error = new IllegalStateException("random source is down");
+        RandomSource source = RandomInteger.getSource();
+        NoncePool pool;
+        RandomInteger.setSource(new RandomSource() {
+            @Override
+            public void nextBytes(byte[] bytes) {
+                throw error;
+            }
+        });
+        try {
+            pool = new NoncePool(Curve.secp256k1, 4, 1);
+            for (int i = 0; i < 200 && pool.failure() == null; i++) {
+                Thread.sleep(50);
+            }
+        } finally {
+            RandomInteger.setSource(source);
+        }
+        assertSame(error, pool.failure());
+        assertEquals(0, pool.size());
+
+        PrivateKey privateKey = new PrivateKey();
+        EcdsaSigner signer = new EcdsaSigner(privateKey, "SHA-256", pool);
+        assertTrue(Ecdsa.verify("After failure", signer.sign("After failure"), privateKey.publicKey()));
+        assertEquals(0, pool.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCurveMismatch() {
+        NoncePool pool = new NoncePool(Utils.prime256v1, 1, 1);
+        try {
+            new EcdsaSigner(new PrivateKey(), "SHA-256", pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
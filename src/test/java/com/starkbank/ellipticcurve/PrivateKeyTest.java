@@ -1,6 +1,7 @@
 package com.starkbank.ellipticcurve;
 import com.starkbank.ellipticcurve.utils.ByteString;
 import org.junit.Test;
+import java.math.BigInteger;
 import static org.junit.Assert.assertEquals;
 
 
@@ -24,6 +25,16 @@ public class PrivateKeyTest {
         assertEquals(privateKey1.curve, privateKey2.curve);
     }
 
+    @Test
+    public void testDerLeadingZeros() {
+        PrivateKey privateKey1 = new PrivateKey(Curve.secp256k1, BigInteger.valueOf(7));
+        ByteString der = privateKey1.toDer();
+        assertEquals(new PrivateKey().toDer().length(), der.length());
+        PrivateKey privateKey2 = PrivateKey.fromDer(der);
+        assertEquals(privateKey1.secret, privateKey2.secret);
+        assertEquals(privateKey1.publicKey(), PublicKey.fromDer(privateKey1.publicKey().toDer()));
+    }
+
     @Test
     public void  testStringConversion() {
         PrivateKey privateKey1 = new PrivateKey();
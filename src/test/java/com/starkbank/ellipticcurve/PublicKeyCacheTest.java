@@ -0,0 +1,144 @@
+package com.starkbank.ellipticcurve;
+import org.junit.Test;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+public class PublicKeyCacheTest {
+
+    @Test
+    public void testPromotion() {
+        PublicKeyCache cache = new PublicKeyCache(2, 3);
+        PublicKey publicKey = new PrivateKey().publicKey();
+
+        assertNull(cache.table(publicKey));
+        assertNull(cache.table(publicKey));
+        assertNotNull(cache.table(PublicKey.fromPem(publicKey.toPem())));
+        assertNotNull(cache.table(publicKey));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testCapacity() {
+        PublicKeyCache cache = new PublicKeyCache(2, 1);
+        for (int i = 0; i < 3; i++) {
+            cache.precompute(new PrivateKey().publicKey());
+        }
+        assertEquals(2, cache.size());
+
+        PublicKey publicKey = new PrivateKey().publicKey();
+        assertNotNull(cache.table(publicKey));
+        assertEquals(2, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testPromotionWhenFull() {
+        PublicKeyCache cache = new PublicKeyCache(2, 3);
+        PublicKey first = new PrivateKey().publicKey();
+        PublicKey second = new PrivateKey().publicKey();
+        cache.precompute(first);
+        cache.precompute(second);
+
+        PublicKey publicKey = new PrivateKey().publicKey();
+        assertNull(cache.table(publicKey));
+        assertNull(cache.table(publicKey));
+        assertNotNull(cache.table(publicKey));
+        assertNotNull(cache.table(publicKey));
+        assertEquals(2, cache.size());
+        assertNull(cache.table(first));
+        assertNotNull(cache.table(second));
+    }
+
+    @Test
+    public void testLeastRecentlyUsed() {
+        PublicKeyCache cache = new PublicKeyCache(2, 0);
+        PublicKey first = new PrivateKey().publicKey();
+        PublicKey second = new PrivateKey().publicKey();
+        cache.precompute(first);
+        cache.precompute(second);
+        assertNotNull(cache.table(first));
+
+        cache.precompute(new PrivateKey().publicKey());
+        assertEquals(2, cache.size());
+        assertNotNull(cache.table(first));
+        assertNull(cache.table(second));
+    }
+
+    @Test
+    public void testHotKeysUnderColdTraffic() throws InterruptedException {
+        final PublicKeyCache cache = new PublicKeyCache(2, 3);
+        final PublicKey hot = new PrivateKey().publicKey();
+        for (int i = 0; i < 3; i++) {
+            cache.table(hot);
+        }
+        assertNotNull(cache.table(hot));
+
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicInteger misses = new AtomicInteger();
+        Thread[] readers = new Thread[3];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    while (!done.get()) {
+                        if (cache.table(hot) == null) {
+                            misses.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            readers[i].start();
+        }
+
+        PublicKey warm = new PrivateKey().publicKey();
+        Curve curve = warm.curve;
+        Point cold = new PrivateKey().publicKey().point;
+        boolean promoted = false;
+        try {
+            for (int i = 0; i < 200 && !promoted; i++) {
+                promoted = cache.table(warm) != null;
+                for (int j = 0; j < 20; j++) {
+                    cold = Math.add(cold, curve.G, curve.A, curve.P);
+                    assertNull(cache.table(new PublicKey(cold, curve)));
+                }
+            }
+        } finally {
+            done.set(true);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+        }
+        assertTrue(promoted);
+        assertEquals(0, misses.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testVerify() {
+        PublicKeyCache cache = new PublicKeyCache(4, 0);
+        PrivateKey privateKey = new PrivateKey();
+        PublicKey publicKey = privateKey.publicKey();
+        cache.precompute(publicKey);
+        assertNotNull(cache.table(publicKey));
+
+        Ecdsa.setPublicKeyCache(cache);
+        try {
+            for (int i = 0; i < 5; i++) {
+                String message = "This is message " + i;
+                Signature signature = Ecdsa.sign(message, privateKey);
+                assertTrue(Ecdsa.verify(message, signature, publicKey));
+                assertFalse(Ecdsa.verify(message + "!", signature, publicKey));
+            }
+        } finally {
+            Ecdsa.setPublicKeyCache(null);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.starkbank.ellipticcurve;
 import com.starkbank.ellipticcurve.utils.ByteString;
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 
 public class PublicKeyTest {
@@ -38,4 +39,13 @@ public class PublicKeyTest {
         assertEquals(publicKey1.point.y, publicKey2.point.y);
         assertEquals(publicKey1.curve, publicKey2.curve);
     }
+
+    @Test
+    public void testEquals() {
+        PublicKey publicKey1 = new PrivateKey().publicKey();
+        PublicKey publicKey2 = PublicKey.fromPem(publicKey1.toPem());
+        assertEquals(publicKey1, publicKey2);
+        assertEquals(publicKey1.hashCode(), publicKey2.hashCode());
+        assertNotEquals(publicKey1, new PrivateKey().publicKey());
+    }
 }
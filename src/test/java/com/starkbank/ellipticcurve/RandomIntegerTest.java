@@ -0,0 +1,61 @@
+package com.starkbank.ellipticcurve;
+import com.starkbank.ellipticcurve.utils.RandomInteger;
+import com.starkbank.ellipticcurve.utils.RandomSource;
+import com.starkbank.ellipticcurve.utils.ThreadLocalRandomSource;
+import org.junit.Test;
+import java.math.BigInteger;
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class RandomIntegerTest {
+
+    @Test
+    public void testRange() {
+        for (Curve curve : new Curve[]{Curve.secp256k1, Utils.prime256v1}) {
+            for (int i = 0; i < 1000; i++) {
+                BigInteger n = RandomInteger.between(BigInteger.ONE, curve.N);
+                assertTrue(n.signum() > 0);
+                assertTrue(n.compareTo(curve.N) < 0);
+            }
+        }
+        boolean[] seen = new boolean[3];
+        for (int i = 0; i < 200; i++) {
+            int n = RandomInteger.between(BigInteger.valueOf(5), BigInteger.valueOf(8)).intValue();
+            assertTrue(n >= 5 && n < 8);
+            seen[n - 5] = true;
+        }
+        assertTrue(seen[0] && seen[1] && seen[2]);
+    }
+
+    @Test
+    public void testRejection() {
+        RandomSource ones = new RandomSource() {
+            private int calls;
+
+            @Override
+            public void nextBytes(byte[] bytes) {
+                Arrays.fill(bytes, (byte) (calls++ == 0 ? 0xff : 0x00));
+            }
+        };
+        assertEquals(BigInteger.valueOf(10), RandomInteger.between(BigInteger.valueOf(10), BigInteger.valueOf(300), ones));
+    }
+
+    @Test
+    public void testSource() {
+        RandomSource fixed = new RandomSource() {
+            @Override
+            public void nextBytes(byte[] bytes) {
+                Arrays.fill(bytes, (byte) 0x01);
+            }
+        };
+        RandomInteger.setSource(fixed);
+        try {
+            assertEquals(new PrivateKey().secret, new PrivateKey().secret);
+        } finally {
+            RandomInteger.setSource(null);
+        }
+        assertTrue(RandomInteger.getSource() instanceof ThreadLocalRandomSource);
+    }
+}
@@ -1,7 +1,12 @@
 package com.starkbank.ellipticcurve;
 import com.starkbank.ellipticcurve.utils.ByteString;
+import com.starkbank.ellipticcurve.utils.Der;
 import org.junit.Test;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 
 public class SignatureTest {
@@ -35,4 +40,65 @@ public class SignatureTest {
         assertEquals(signature1.r, signature2.r);
         assertEquals(signature1.s, signature2.s);
     }
+
+    @Test
+    public void testDerConversionWithRecoveryId() {
+        PrivateKey privateKey = new PrivateKey();
+        String message = "This is a text message";
+
+        Signature signature1 = Ecdsa.sign(message, privateKey);
+
+        ByteString der = signature1.toDer(true);
+        assertEquals(signature1.toDer().length() + 1, der.length());
+
+        Signature signature2 = Signature.fromDer(der, true);
+
+        assertEquals(signature1.r, signature2.r);
+        assertEquals(signature1.s, signature2.s);
+        assertEquals(signature1.recoveryId, signature2.recoveryId);
+        assertNull(Signature.fromDer(signature1.toDer()).recoveryId);
+    }
+
+    @Test
+    public void testDerFromBuffer() {
+        PrivateKey privateKey = new PrivateKey();
+        Signature signature1 = Ecdsa.sign("This is a text message", privateKey);
+        byte[] der = signature1.toDer(true).getBytes();
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(der.length + 3);
+        buffer.put(new byte[]{1, 2, 3});
+        buffer.put(der);
+        buffer.position(3);
+        Signature signature2 = Signature.fromDer(buffer, true);
+
+        assertEquals(signature1.r, signature2.r);
+        assertEquals(signature1.s, signature2.s);
+        assertEquals(signature1.recoveryId, signature2.recoveryId);
+        assertEquals(3, buffer.position());
+    }
+
+    @Test
+    public void testDerIntoBuffer() {
+        Signature signature = Ecdsa.sign("This is a text message", new PrivateKey());
+        byte[] der = signature.toDer(true).getBytes();
+        assertEquals(der.length, signature.derSize(true));
+        assertArrayEquals(Der.encodeSequence(Der.encodeInteger(signature.r), Der.encodeInteger(signature.s)).getBytes(), signature.toDer().getBytes());
+
+        byte[] bytes = new byte[der.length + 2];
+        assertEquals(der.length, signature.toDer(bytes, 2, true));
+        assertArrayEquals(der, Arrays.copyOfRange(bytes, 2, bytes.length));
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(der.length);
+        signature.toDer(buffer, true);
+        assertEquals(der.length, buffer.position());
+        buffer.flip();
+        assertEquals(signature.s, Signature.fromDer(buffer, true).s);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testTrailingJunk() {
+        byte[] der = Ecdsa.sign("This is a text message", new PrivateKey()).toDer().getBytes();
+        byte[] junk = Arrays.copyOf(der, der.length + 1);
+        Signature.fromDer(new ByteString(junk));
+    }
 }
@@ -1,11 +1,26 @@
 package com.starkbank.ellipticcurve;
 import java.io.IOException;
+import java.math.BigInteger;
 import java.io.RandomAccessFile;
 import java.net.URISyntaxException;
 
 
 class Utils {
 
+    /**
+     * NIST P-256, a general prime without special shape, so the curve runs on MontgomeryField
+     */
+    static final Curve prime256v1 = new Curve(
+        new BigInteger("ffffffff00000001000000000000000000000000fffffffffffffffffffffffc", 16),
+        new BigInteger("5ac635d8aa3a93e7b3ebbd55769886bc651d06b0cc53b0f63bce3c3e27d2604b", 16),
+        new BigInteger("ffffffff00000001000000000000000000000000ffffffffffffffffffffffff", 16),
+        new BigInteger("ffffffff00000000ffffffffffffffffbce6faada7179e84f3b9cac2fc632551", 16),
+        new BigInteger("6b17d1f2e12c4247f8bce6e563a440f277037d812deb33a0f4a13945d898c296", 16),
+        new BigInteger("4fe342e2fe1a7f9b8ee7eb4a7c0f9e162bce33576b315ececbb6406837bf51f5", 16),
+        "prime256v1",
+        new long[]{1, 2, 840, 10045, 3, 1, 7}
+    );
+
     static String readFileAsString(String path) throws URISyntaxException, IOException {
         return new String(readFileAsBytes(path), "ASCII");
     }